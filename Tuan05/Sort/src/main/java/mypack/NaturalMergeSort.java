@@ -0,0 +1,423 @@
+package mypack;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Merge sort tự nhiên, ổn định (stable), kiểu TimSort:
+ * - Tìm các "run" có sẵn: đoạn tăng dần, hoặc giảm ngặt thì đảo lại (giảm ngặt nên đảo vẫn ổn định).
+ *   Run ngắn hơn minRun được nối dài bằng binary insertion sort.
+ * - Các run được đẩy vào stack và merge sao cho độ dài giảm nhanh từ đáy lên đỉnh (bất biến của TimSort),
+ *   nên tổng chi phí O(n log n), và chỉ O(n) nếu dữ liệu đã sort sẵn (1 run duy nhất).
+ * - Merge có "galloping": khi 1 bên thắng liên tiếp nhiều lần thì tìm bằng exponential search và
+ *   chép nguyên khối, nên nối 1 lô nhỏ vào danh sách lớn đã sort chỉ tốn ~O(k log n) so sánh.
+ * - Bộ đệm tạm bị chặn bởi maxBuffer phần tử (mặc định n/2 như TimSort). Khi cả 2 run đều dài hơn
+ *   bộ đệm thì chia đôi bằng xoay mảng (rotation) tới khi các mảnh vừa bộ đệm, vẫn ổn định.
+ */
+public class NaturalMergeSort {
+    private static final int MIN_MERGE = 32;
+    private static final int MIN_GALLOP = 7;
+
+    public static <T> void sort(T[] a, Comparator<? super T> cmp) {
+        sort(a, 0, a.length, cmp, a.length / 2);
+    }
+
+    public static <T> void sort(T[] a, Comparator<? super T> cmp, int maxBuffer) {
+        sort(a, 0, a.length, cmp, maxBuffer);
+    }
+
+    /** Sort a[from..to) với bộ đệm tạm tối đa maxBuffer phần tử. */
+    public static <T> void sort(T[] a, int from, int to, Comparator<? super T> cmp, int maxBuffer) {
+        if (from < 0 || to > a.length || from > to) throw new IllegalArgumentException("Bad range [" + from + ", " + to + ")");
+        if (maxBuffer < 0) throw new IllegalArgumentException("maxBuffer < 0");
+        int n = to - from;
+        if (n < 2) return;
+        if (n < MIN_MERGE) {
+            int run = countRunAndMakeAscending(a, from, to, cmp);
+            binaryInsertionSort(a, from, to, from + run, cmp);
+            return;
+        }
+        Merger<T> m = new Merger<>(a, cmp, maxBuffer);
+        int minRun = minRunLength(n);
+        int lo = from;
+        while (n > 0) {
+            int run = countRunAndMakeAscending(a, lo, to, cmp);
+            if (run < minRun) {
+                int force = Math.min(n, minRun);
+                binaryInsertionSort(a, lo, lo + force, lo + run, cmp);
+                run = force;
+            }
+            m.pushRun(lo, run);
+            m.mergeCollapse();
+            lo += run;
+            n -= run;
+        }
+        m.mergeForceCollapse();
+    }
+
+    /** Như List.sort: chép ra mảng, sort, ghi lại qua ListIterator. */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> list, Comparator<? super T> cmp) {
+        Object[] arr = list.toArray();
+        sort((T[]) arr, (Comparator<Object>) cmp);
+        ListIterator<T> it = list.listIterator();
+        for (Object o : arr) {
+            it.next();
+            it.set((T) o);
+        }
+    }
+
+    /* ==================== run ==================== */
+    // Độ dài run bắt đầu tại lo; run giảm ngặt được đảo thành tăng
+    private static <T> int countRunAndMakeAscending(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        int runHi = lo + 1;
+        if (runHi == hi) return 1;
+        if (cmp.compare(a[runHi++], a[lo]) < 0) {
+            while (runHi < hi && cmp.compare(a[runHi], a[runHi - 1]) < 0) runHi++;
+            reverse(a, lo, runHi);
+        } else {
+            while (runHi < hi && cmp.compare(a[runHi], a[runHi - 1]) >= 0) runHi++;
+        }
+        return runHi - lo;
+    }
+
+    // a[lo..start) đã sort; chèn dần a[start..hi) bằng tìm kiếm nhị phân (chèn sau các phần tử bằng nó)
+    private static <T> void binaryInsertionSort(T[] a, int lo, int hi, int start, Comparator<? super T> cmp) {
+        if (start == lo) start++;
+        for (; start < hi; start++) {
+            T pivot = a[start];
+            int left = lo, right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (cmp.compare(pivot, a[mid]) < 0) right = mid;
+                else left = mid + 1;
+            }
+            System.arraycopy(a, left, a, left + 1, start - left);
+            a[left] = pivot;
+        }
+    }
+
+    // n < MIN_MERGE thì trả n; ngược lại k trong [MIN_MERGE/2, MIN_MERGE] sao cho n/k gần lũy thừa 2
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private static void reverse(Object[] a, int lo, int hi) {
+        hi--;
+        while (lo < hi) {
+            Object t = a[lo];
+            a[lo++] = a[hi];
+            a[hi--] = t;
+        }
+    }
+
+    /* ==================== gallop ==================== */
+    /**
+     * Vị trí chèn trái nhất của key trong arr[base..base+len) đã sort: arr[base+k-1] < key <= arr[base+k].
+     * Tìm theo bước 1, 3, 7, 15... từ hint rồi nhị phân trong khoảng cuối.
+     */
+    static <T> int gallopLeft(T key, T[] arr, int base, int len, int hint, Comparator<? super T> cmp) {
+        int lastOfs = 0, ofs = 1;
+        if (cmp.compare(key, arr[base + hint]) > 0) {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && cmp.compare(key, arr[base + hint + ofs]) > 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs; // tràn int
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        } else {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && cmp.compare(key, arr[base + hint - ofs]) <= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        }
+        // arr[base+lastOfs] < key <= arr[base+ofs]
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (cmp.compare(key, arr[base + m]) > 0) lastOfs = m + 1;
+            else ofs = m;
+        }
+        return ofs;
+    }
+
+    /** Như gallopLeft nhưng trả vị trí chèn phải nhất: arr[base+k-1] <= key < arr[base+k]. */
+    static <T> int gallopRight(T key, T[] arr, int base, int len, int hint, Comparator<? super T> cmp) {
+        int lastOfs = 0, ofs = 1;
+        if (cmp.compare(key, arr[base + hint]) < 0) {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && cmp.compare(key, arr[base + hint - ofs]) < 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        } else {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && cmp.compare(key, arr[base + hint + ofs]) >= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        }
+        // arr[base+lastOfs] <= key < arr[base+ofs]
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (cmp.compare(key, arr[base + m]) < 0) ofs = m;
+            else lastOfs = m + 1;
+        }
+        return ofs;
+    }
+
+    /* ==================== stack run + merge ==================== */
+    private static final class Merger<T> {
+        private final T[] a;
+        private final Comparator<? super T> cmp;
+        private final int maxBuffer;
+        private T[] tmp;
+        private int minGallop = MIN_GALLOP;
+        // độ dài run giảm ít nhất theo Fibonacci từ đáy lên, 49 ô đủ cho mọi n <= Integer.MAX_VALUE
+        private final int[] runBase = new int[49];
+        private final int[] runLen = new int[49];
+        private int stackSize;
+
+        @SuppressWarnings("unchecked")
+        Merger(T[] a, Comparator<? super T> cmp, int maxBuffer) {
+            this.a = a;
+            this.cmp = cmp;
+            this.maxBuffer = maxBuffer;
+            this.tmp = (T[]) new Object[Math.min(256, maxBuffer)];
+        }
+
+        void pushRun(int base, int len) {
+            runBase[stackSize] = base;
+            runLen[stackSize] = len;
+            stackSize++;
+        }
+
+        // Giữ bất biến: runLen[i-2] > runLen[i-1] + runLen[i] và runLen[i-1] > runLen[i]
+        void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                        || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                    if (runLen[n - 1] < runLen[n + 1]) n--;
+                } else if (runLen[n] > runLen[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) n--;
+                mergeAt(n);
+            }
+        }
+
+        // Merge run i và i+1 trên stack
+        private void mergeAt(int i) {
+            int base1 = runBase[i], len1 = runLen[i];
+            int base2 = runBase[i + 1], len2 = runLen[i + 1];
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+            merge(base1, len1, base2, len2);
+        }
+
+        // Merge a[base1..+len1) với a[base2..+len2) (liền nhau, đều đã sort)
+        private void merge(int base1, int len1, int base2, int len2) {
+            // Phần đầu run1 <= a[base2] đã đúng chỗ; phần cuối run2 >= a[cuối run1] cũng vậy
+            int k = gallopRight(a[base2], a, base1, len1, 0, cmp);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) return;
+            len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1, cmp);
+            if (len2 == 0) return;
+            if (Math.min(len1, len2) > maxBuffer) mergeInPlace(base1, len1, len2);
+            else if (len1 <= len2) mergeLo(base1, len1, base2, len2);
+            else mergeHi(base1, len1, base2, len2);
+        }
+
+        /**
+         * Cả 2 run dài hơn bộ đệm: cắt run dài hơn ở giữa, tìm điểm cắt tương ứng bên kia,
+         * xoay để 2 nửa trái về trước, rồi merge 2 cặp nhỏ hơn (như std::inplace_merge khi không có bộ đệm).
+         */
+        private void mergeInPlace(int lo, int len1, int len2) {
+            if (len1 + len2 == 2) { // merge() đã cắt phần đúng chỗ nên 2 phần tử này chắc chắn ngược thứ tự
+                T t = a[lo];
+                a[lo] = a[lo + 1];
+                a[lo + 1] = t;
+                return;
+            }
+            int mid = lo + len1;
+            int cut1, cut2;
+            if (len1 > len2) {
+                cut1 = lo + len1 / 2;
+                cut2 = mid + gallopLeft(a[cut1], a, mid, len2, 0, cmp);
+            } else {
+                cut2 = mid + len2 / 2;
+                cut1 = lo + gallopRight(a[cut2], a, lo, len1, 0, cmp);
+            }
+            rotate(cut1, mid, cut2);
+            int newMid = cut1 + (cut2 - mid);
+            if (cut1 > lo && cut2 > mid) merge(lo, cut1 - lo, cut1, newMid - cut1);
+            if (mid > cut1 && lo + len1 + len2 > cut2) merge(newMid, mid - cut1, newMid + (mid - cut1), lo + len1 + len2 - cut2);
+        }
+
+        // Đổi chỗ a[lo..mid) và a[mid..hi) bằng 3 lần đảo
+        private void rotate(int lo, int mid, int hi) {
+            if (lo == mid || mid == hi) return;
+            reverse(a, lo, mid);
+            reverse(a, mid, hi);
+            reverse(a, lo, hi);
+        }
+
+        // len1 <= len2: chép run1 ra tmp, merge từ trái sang
+        private void mergeLo(int base1, int len1, int base2, int len2) {
+            T[] a = this.a;
+            T[] tmp = ensureCapacity(len1);
+            System.arraycopy(a, base1, tmp, 0, len1);
+            int c1 = 0, c2 = base2, dest = base1;
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0, count2 = 0; // số lần thắng liên tiếp của run1 / run2
+                do {
+                    if (cmp.compare(a[c2], tmp[c1]) < 0) {
+                        a[dest++] = a[c2++];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) break outer;
+                    } else {
+                        a[dest++] = tmp[c1++];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) break outer;
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                // galloping: chép nguyên khối tới khi 2 bên lại xen kẽ nhau
+                do {
+                    count1 = gallopRight(a[c2], tmp, c1, len1, 0, cmp);
+                    if (count1 != 0) {
+                        System.arraycopy(tmp, c1, a, dest, count1);
+                        dest += count1;
+                        c1 += count1;
+                        len1 -= count1;
+                        if (len1 == 0) break outer;
+                    }
+                    a[dest++] = a[c2++];
+                    if (--len2 == 0) break outer;
+
+                    count2 = gallopLeft(tmp[c1], a, c2, len2, 0, cmp);
+                    if (count2 != 0) {
+                        System.arraycopy(a, c2, a, dest, count2);
+                        dest += count2;
+                        c2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) break outer;
+                    }
+                    a[dest++] = tmp[c1++];
+                    if (--len1 == 0) break outer;
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2; // ra khỏi galloping thì lần sau khó vào hơn
+            }
+            this.minGallop = Math.max(1, minGallop);
+            // run2 hết trước: chép nốt phần còn lại của run1; run1 hết trước: run2 đã đúng chỗ
+            if (len1 > 0) System.arraycopy(tmp, c1, a, dest, len1);
+        }
+
+        // len1 > len2: chép run2 ra tmp, merge từ phải sang
+        private void mergeHi(int base1, int len1, int base2, int len2) {
+            T[] a = this.a;
+            T[] tmp = ensureCapacity(len2);
+            System.arraycopy(a, base2, tmp, 0, len2);
+            int c1 = base1 + len1 - 1, c2 = len2 - 1, dest = base2 + len2 - 1;
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0, count2 = 0;
+                do {
+                    if (cmp.compare(tmp[c2], a[c1]) < 0) {
+                        a[dest--] = a[c1--];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) break outer;
+                    } else {
+                        a[dest--] = tmp[c2--];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) break outer;
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                do {
+                    count1 = len1 - gallopRight(tmp[c2], a, base1, len1, len1 - 1, cmp);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        c1 -= count1;
+                        len1 -= count1;
+                        System.arraycopy(a, c1 + 1, a, dest + 1, count1);
+                        if (len1 == 0) break outer;
+                    }
+                    a[dest--] = tmp[c2--];
+                    if (--len2 == 0) break outer;
+
+                    count2 = len2 - gallopLeft(a[c1], tmp, 0, len2, len2 - 1, cmp);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        c2 -= count2;
+                        len2 -= count2;
+                        System.arraycopy(tmp, c2 + 1, a, dest + 1, count2);
+                        if (len2 == 0) break outer;
+                    }
+                    a[dest--] = a[c1--];
+                    if (--len1 == 0) break outer;
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(1, minGallop);
+            if (len2 > 0) System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+        }
+
+        private T[] ensureCapacity(int need) {
+            if (tmp.length < need) {
+                int cap = Math.max(need, Math.min(maxBuffer, tmp.length * 2));
+                tmp = Arrays.copyOf(tmp, cap);
+            }
+            return tmp;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package mypack;
+
+/**
+ * Cách chia (partition) dùng trong QuickSortInt / QuickSortGeneric.
+ * - CLASSIC: Hoare 2 phần với pivot median-of-three (cách cũ).
+ * - THREE_WAY: Dijkstra 3 phần (< pivot | = pivot | > pivot); khóa trùng nhau chỉ được xét 1 lần,
+ *   mảng chỉ có k giá trị khác nhau sort trong O(n log k).
+ * - DUAL_PIVOT: 2 pivot p <= q chia 3 phần (< p | [p, q] | > q), ít lượt duyệt bộ nhớ hơn CLASSIC
+ *   trên dữ liệu ít trùng.
+ * - AUTO: lấy mẫu đều trên mảng, đếm tỉ lệ khóa trùng trong mẫu: nhiều trùng -> THREE_WAY,
+ *   mảng lớn ít trùng -> DUAL_PIVOT, mảng nhỏ -> CLASSIC.
+ */
+public enum PartitionScheme {
+    AUTO, CLASSIC, THREE_WAY, DUAL_PIVOT
+}
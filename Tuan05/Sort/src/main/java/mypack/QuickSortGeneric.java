@@ -1,34 +1,132 @@
 package mypack;
 import java.util.Comparator;
-import java.util.concurrent.ThreadLocalRandom;
 
+/** Introsort cho mảng đối tượng + Comparator, cùng cách làm với QuickSortInt. */
 public class QuickSortGeneric {
     private static final int INSERTION_CUTOFF = 12;
+    private static final int SAMPLE_SIZE = 64;
+    private static final int DUAL_PIVOT_MIN = 1 << 12;
+    private static final int NINTHER_MIN = 128;
 
     public static <T> void sort(T[] a, Comparator<? super T> cmp) {
-        shuffle(a);
-        quicksort(a, 0, a.length - 1, cmp);
+        sort(a, cmp, PartitionScheme.AUTO);
     }
 
-    private static <T> void quicksort(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+    public static <T> void sort(T[] a, Comparator<? super T> cmp, PartitionScheme scheme) {
+        int depth = QuickSortInt.depthLimit(a.length);
+        if (scheme == PartitionScheme.AUTO) scheme = choose(a, 0, a.length - 1, cmp);
+        switch (scheme) {
+            case THREE_WAY -> quicksort3(a, 0, a.length - 1, depth, cmp);
+            case DUAL_PIVOT -> dualPivot(a, 0, a.length - 1, depth, cmp);
+            default -> quicksort(a, 0, a.length - 1, depth, cmp);
+        }
+    }
+
+    // Như QuickSortInt.choose: mẫu cách đều, >= 1/8 cặp kề nhau bằng nhau (cmp == 0) -> THREE_WAY
+    static <T> PartitionScheme choose(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        int n = hi - lo + 1;
+        if (n <= INSERTION_CUTOFF) return PartitionScheme.CLASSIC;
+        int s = Math.min(n, SAMPLE_SIZE);
+        @SuppressWarnings("unchecked")
+        T[] sample = (T[]) new Object[s];
+        for (int k = 0; k < s; k++) sample[k] = a[lo + QuickSortInt.samplePos(n, s, k)];
+        insertion(sample, 0, s - 1, cmp);
+        int dups = 0;
+        for (int k = 1; k < s; k++) if (cmp.compare(sample[k - 1], sample[k]) == 0) dups++;
+        if (dups * 8 >= s) return PartitionScheme.THREE_WAY;
+        return n >= DUAL_PIVOT_MIN ? PartitionScheme.DUAL_PIVOT : PartitionScheme.CLASSIC;
+    }
+
+    private static <T> void quicksort(T[] a, int lo, int hi, int depth, Comparator<? super T> cmp) {
         while (lo < hi) {
             if (hi - lo + 1 <= INSERTION_CUTOFF) {
                 insertion(a, lo, hi, cmp);
                 return;
             }
-            int m = medianOfThree(a, lo, (lo + hi) >>> 1, hi, cmp);
-            swap(a, lo, m);
+            if (depth-- == 0) {
+                heapSort(a, lo, hi, cmp);
+                return;
+            }
+            swap(a, lo, pivotIndex(a, lo, hi, cmp));
             int p = hoarePartition(a, lo, hi, cmp);
             if (p - lo < hi - (p + 1)) {
-                quicksort(a, lo, p, cmp);
+                quicksort(a, lo, p, depth, cmp);
                 lo = p + 1;
             } else {
-                quicksort(a, p + 1, hi, cmp);
+                quicksort(a, p + 1, hi, depth, cmp);
                 hi = p;
             }
         }
     }
 
+    // 3-way (Dijkstra), mỗi phần tử chỉ so với pivot 1 lần mỗi lượt
+    private static <T> void quicksort3(T[] a, int lo, int hi, int depth, Comparator<? super T> cmp) {
+        while (hi - lo + 1 > INSERTION_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi, cmp);
+                return;
+            }
+            T pivot = a[pivotIndex(a, lo, hi, cmp)];
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt) {
+                int c = cmp.compare(a[i], pivot);
+                if (c < 0) swap(a, lt++, i++);
+                else if (c > 0) swap(a, i, gt--);
+                else i++;
+            }
+            if (lt - lo < hi - gt) {
+                quicksort3(a, lo, lt - 1, depth, cmp);
+                lo = gt + 1;
+            } else {
+                quicksort3(a, gt + 1, hi, depth, cmp);
+                hi = lt - 1;
+            }
+        }
+        insertion(a, lo, hi, cmp);
+    }
+
+    private static <T> void dualPivot(T[] a, int lo, int hi, int depth, Comparator<? super T> cmp) {
+        while (hi - lo + 1 > INSERTION_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi, cmp);
+                return;
+            }
+            int sixth = (hi - lo + 1) / 6;
+            int e3 = (lo + hi) >>> 1, e2 = e3 - sixth, e1 = e2 - sixth, e4 = e3 + sixth, e5 = e4 + sixth;
+            sort5(a, e1, e2, e3, e4, e5, cmp);
+            swap(a, lo, e2);
+            swap(a, hi, e4);
+            T p = a[lo], q = a[hi];
+            boolean samePivots = cmp.compare(p, q) == 0;
+            int lt = lo + 1, gt = hi - 1, i = lo + 1;
+            while (i <= gt) {
+                T v = a[i];
+                if (cmp.compare(v, p) < 0) swap(a, lt++, i++);
+                else if (cmp.compare(v, q) > 0) swap(a, i, gt--);
+                else i++;
+            }
+            swap(a, lo, --lt);
+            swap(a, hi, ++gt);
+            int midLo = lt + 1, midHi = samePivots ? lt : gt - 1;
+            int left = lt - lo, mid = midHi - midLo + 1, right = hi - gt;
+            if (left >= mid && left >= right) {
+                dualPivot(a, midLo, midHi, depth, cmp);
+                dualPivot(a, gt + 1, hi, depth, cmp);
+                hi = lt - 1;
+            } else if (mid >= right) {
+                dualPivot(a, lo, lt - 1, depth, cmp);
+                dualPivot(a, gt + 1, hi, depth, cmp);
+                lo = midLo;
+                hi = midHi;
+            } else {
+                dualPivot(a, lo, lt - 1, depth, cmp);
+                dualPivot(a, midLo, midHi, depth, cmp);
+                lo = gt + 1;
+            }
+        }
+        insertion(a, lo, hi, cmp);
+    }
+
     private static <T> int hoarePartition(T[] a, int lo, int hi, Comparator<? super T> cmp) {
         T pivot = a[lo];
         int i = lo - 1, j = hi + 1;
@@ -52,6 +150,50 @@ public class QuickSortGeneric {
         }
     }
 
+    private static <T> int pivotIndex(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        int mid = (lo + hi) >>> 1;
+        if (hi - lo + 1 < NINTHER_MIN) return medianOfThree(a, lo, mid, hi, cmp);
+        int e = (hi - lo) / 8;
+        int m1 = medianOfThree(a, lo, lo + e, lo + 2 * e, cmp);
+        int m2 = medianOfThree(a, mid - e, mid, mid + e, cmp);
+        int m3 = medianOfThree(a, hi - 2 * e, hi - e, hi, cmp);
+        return medianOfThree(a, m1, m2, m3, cmp);
+    }
+
+    private static <T> void sort5(T[] a, int e1, int e2, int e3, int e4, int e5, Comparator<? super T> cmp) {
+        int[] idx = {e1, e2, e3, e4, e5};
+        for (int i = 1; i < 5; i++) {
+            T v = a[idx[i]];
+            int j = i - 1;
+            while (j >= 0 && cmp.compare(a[idx[j]], v) > 0) {
+                a[idx[j + 1]] = a[idx[j]];
+                j--;
+            }
+            a[idx[j + 1]] = v;
+        }
+    }
+
+    private static <T> void heapSort(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) heapify(a, lo, n, i, cmp);
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, lo, lo + end);
+            heapify(a, lo, end, 0, cmp);
+        }
+    }
+
+    private static <T> void heapify(T[] a, int lo, int size, int i, Comparator<? super T> cmp) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1, right = left + 1;
+            if (left < size && cmp.compare(a[lo + left], a[lo + largest]) > 0) largest = left;
+            if (right < size && cmp.compare(a[lo + right], a[lo + largest]) > 0) largest = right;
+            if (largest == i) return;
+            swap(a, lo + i, lo + largest);
+            i = largest;
+        }
+    }
+
     private static <T> int medianOfThree(T[] a, int i, int j, int k, Comparator<? super T> cmp) {
         T ai = a[i], aj = a[j], ak = a[k];
         if (cmp.compare(ai, aj) < 0) {
@@ -72,12 +214,4 @@ public class QuickSortGeneric {
             a[j] = t;
         }
     }
-
-    private static <T> void shuffle(T[] a) {
-        ThreadLocalRandom rnd = ThreadLocalRandom.current();
-        for (int i = a.length - 1; i > 0; i--) {
-            int j = rnd.nextInt(i + 1);
-            swap(a, i, j);
-        }
-    }
 }
@@ -1,40 +1,237 @@
 package mypack;
 import java.util.Arrays;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Introsort trên int[]: quicksort (CLASSIC / THREE_WAY / DUAL_PIVOT, xem PartitionScheme) có giới hạn
+ * độ sâu 2*log2(n); đoạn nào chia quá sâu (pivot xấu liên tục) thì chuyển sang heapsort,
+ * nên luôn O(n log n) mà không cần xáo trộn mảng trước (giữ được dữ liệu gần như đã sort).
+ * Pivot tất định: ninther (trung vị của 3 trung vị) cho đoạn lớn, median-of-three cho đoạn vừa.
+ */
 public class QuickSortInt {
     private static final int INSERTION_CUTOFF = 16;
+    // Đoạn nhỏ hơn mức này thì chia task chỉ tốn thêm chi phí, sort tuần tự luôn
+    public static final int MIN_PARALLEL_THRESHOLD = 1 << 13;
+    // AUTO: số phần tử lấy mẫu, và mảng từ cỡ này trở lên mới dùng DUAL_PIVOT
+    private static final int SAMPLE_SIZE = 64;
+    private static final int DUAL_PIVOT_MIN = 1 << 12;
+    // Đoạn từ cỡ này trở lên chọn pivot bằng ninther (9 mẫu) thay cho median-of-three
+    private static final int NINTHER_MIN = 128;
 
     public static void sort(int[] a) {
-        // Khuyến nghị: xáo trộn để tránh worst-case do dữ liệu có cấu trúc
-        shuffle(a);
-        quicksort(a, 0, a.length - 1);
+        sort(a, PartitionScheme.AUTO);
     }
 
-    private static void quicksort(int[] a, int lo, int hi) {
+    public static void sort(int[] a, PartitionScheme scheme) {
+        sortRange(a, 0, a.length - 1, scheme, depthLimit(a.length));
+    }
+
+    private static void sortRange(int[] a, int lo, int hi, PartitionScheme scheme, int depth) {
+        if (scheme == PartitionScheme.AUTO) scheme = choose(a, lo, hi);
+        switch (scheme) {
+            case THREE_WAY -> quicksort3(a, lo, hi, depth);
+            case DUAL_PIVOT -> dualPivot(a, lo, hi, depth);
+            default -> quicksort(a, lo, hi, depth);
+        }
+    }
+
+    // Số lần chia tối đa trên 1 nhánh trước khi chuyển sang heapsort
+    static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    /**
+     * Chọn cách partition cho a[lo..hi]: lấy SAMPLE_SIZE phần tử cách đều, sort mẫu rồi đếm
+     * số cặp kề nhau bằng nhau. Từ 1/8 mẫu là trùng -> có khóa lặp lại rất nhiều lần -> THREE_WAY.
+     */
+    static PartitionScheme choose(int[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        if (n <= INSERTION_CUTOFF) return PartitionScheme.CLASSIC;
+        int s = Math.min(n, SAMPLE_SIZE);
+        int[] sample = new int[s];
+        for (int k = 0; k < s; k++) sample[k] = a[lo + samplePos(n, s, k)];
+        insertionSort(sample, 0, s - 1);
+        int dups = 0;
+        for (int k = 1; k < s; k++) if (sample[k] == sample[k - 1]) dups++;
+        if (dups * 8 >= s) return PartitionScheme.THREE_WAY;
+        return n >= DUAL_PIVOT_MIN ? PartitionScheme.DUAL_PIVOT : PartitionScheme.CLASSIC;
+    }
+
+    /**
+     * Vị trí mẫu thứ k (0..s-1) trong đoạn dài n: mỗi mẫu thuộc 1 ô rộng n/s, lệch trong ô 1 khoảng
+     * giả ngẫu nhiên cố định. Nếu lấy đúng bước đều, dữ liệu đối xứng (organ pipe) cho ra các cặp mẫu
+     * bằng nhau giả và bị nhận nhầm là nhiều khóa trùng.
+     */
+    static int samplePos(int n, int s, int k) {
+        long step = ((long) n << 16) / s; // bước dạng 16.16
+        long jitter = (((k + 1) * 0x9E3779B97F4A7C15L) >>> 48) * step >>> 16;
+        return (int) ((k * step + jitter) >>> 16);
+    }
+
+    /* ==================== Song song (ForkJoin) ==================== */
+    public static void parallelSort(int[] a) {
+        parallelSort(a, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelSort(int[] a, ForkJoinPool pool) {
+        // ~8 task lá cho mỗi luồng để cân tải khi 2 nhánh partition lệch nhau
+        int threshold = Math.max(MIN_PARALLEL_THRESHOLD, a.length / (pool.getParallelism() << 3));
+        parallelSort(a, pool, threshold);
+    }
+
+    /**
+     * Chia đôi bằng partition như bản tuần tự, đoạn > threshold thì fork 1 nhánh sang pool.
+     * Giới hạn độ sâu được tính chung cho cả phần song song lẫn tuần tự của mỗi nhánh,
+     * nên vẫn đảm bảo O(n log n) như sort(a).
+     */
+    public static void parallelSort(int[] a, ForkJoinPool pool, int threshold) {
+        if (threshold < 2) throw new IllegalArgumentException("threshold < 2");
+        if (a.length < 2) return;
+        if (a.length <= threshold) {
+            sort(a);
+            return;
+        }
+        pool.invoke(new ParallelTask(a, 0, a.length - 1, threshold, depthLimit(a.length)));
+    }
+
+    private static final class ParallelTask extends RecursiveAction {
+        private final int[] a;
+        private final int lo, hi, threshold, depth;
+
+        ParallelTask(int[] a, int lo, int hi, int threshold, int depth) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int lo = this.lo, hi = this.hi, depth = this.depth;
+            ParallelTask[] forked = new ParallelTask[8];
+            int nf = 0;
+            while (hi - lo + 1 > threshold && depth > 0) {
+                depth--;
+                swap(a, lo, pivotIndex(a, lo, hi));
+                int p = hoarePartition(a, lo, hi);
+                // fork nhánh nhỏ, tự làm tiếp nhánh lớn (giống khử đệ quy đuôi ở bản tuần tự)
+                ParallelTask t;
+                if (p - lo < hi - (p + 1)) {
+                    t = new ParallelTask(a, lo, p, threshold, depth);
+                    lo = p + 1;
+                } else {
+                    t = new ParallelTask(a, p + 1, hi, threshold, depth);
+                    hi = p;
+                }
+                t.fork();
+                if (nf == forked.length) forked = Arrays.copyOf(forked, nf * 2);
+                forked[nf++] = t;
+            }
+            sortRange(a, lo, hi, PartitionScheme.AUTO, depth);
+            for (int i = nf - 1; i >= 0; i--) forked[i].join();
+        }
+    }
+
+    private static void quicksort(int[] a, int lo, int hi, int depth) {
         while (lo < hi) {
             // Cut-off: đoạn ngắn dùng insertion sort để giảm overhead đệ quy
             if (hi - lo + 1 <= INSERTION_CUTOFF) {
                 insertionSort(a, lo, hi);
                 return;
             }
+            // Chia quá sâu -> pivot xấu liên tục -> heapsort cho phần còn lại
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
 
-            // Median-of-three để chọn pivot "khá tốt"
-            int m = medianOfThree(a, lo, (lo + hi) >>> 1, hi);
-            swap(a, lo, m); // đưa pivot về a[lo]
+            // Ninther / median-of-three để chọn pivot "khá tốt"
+            swap(a, lo, pivotIndex(a, lo, hi)); // đưa pivot về a[lo]
 
             int p = hoarePartition(a, lo, hi); // trả về chỉ số "vách ngăn"
             // Tail-recursion elimination: luôn xử lý nhánh nhỏ trước
             if (p - lo < hi - (p + 1)) {
-                quicksort(a, lo, p);
+                quicksort(a, lo, p, depth);
                 lo = p + 1; // lặp tiếp với nhánh lớn hơn
             } else {
-                quicksort(a, p + 1, hi);
+                quicksort(a, p + 1, hi, depth);
                 hi = p;
             }
         }
     }
 
+    // 3-way (Dijkstra): [lo..lt-1] < pivot, [lt..gt] == pivot, [gt+1..hi] > pivot; phần bằng pivot không xét lại
+    private static void quicksort3(int[] a, int lo, int hi, int depth) {
+        while (hi - lo + 1 > INSERTION_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            int pivot = a[pivotIndex(a, lo, hi)];
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt) {
+                int v = a[i];
+                if (v < pivot) swap(a, lt++, i++);
+                else if (v > pivot) swap(a, i, gt--);
+                else i++;
+            }
+            if (lt - lo < hi - gt) {
+                quicksort3(a, lo, lt - 1, depth);
+                lo = gt + 1;
+            } else {
+                quicksort3(a, gt + 1, hi, depth);
+                hi = lt - 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    // Dual-pivot: p = a[lo] <= q = a[hi]; chia thành [< p] p [p..q] q [> q]
+    private static void dualPivot(int[] a, int lo, int hi, int depth) {
+        while (hi - lo + 1 > INSERTION_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            // 5 mẫu cách đều, sort tại chỗ; p, q = mẫu thứ 2 và thứ 4 (xấp xỉ vị trí 1/3, 2/3)
+            int sixth = (hi - lo + 1) / 6;
+            int e3 = (lo + hi) >>> 1, e2 = e3 - sixth, e1 = e2 - sixth, e4 = e3 + sixth, e5 = e4 + sixth;
+            sort5(a, e1, e2, e3, e4, e5);
+            swap(a, lo, e2);
+            swap(a, hi, e4);
+            int p = a[lo], q = a[hi];
+            int lt = lo + 1, gt = hi - 1, i = lo + 1;
+            while (i <= gt) {
+                int v = a[i];
+                if (v < p) swap(a, lt++, i++);
+                else if (v > q) swap(a, i, gt--);
+                else i++;
+            }
+            swap(a, lo, --lt);
+            swap(a, hi, ++gt);
+            // 2 đoạn nhỏ hơn đệ quy, đoạn lớn nhất lặp tiếp; p == q thì đoạn giữa toàn bằng nhau, bỏ qua
+            int midLo = lt + 1, midHi = p < q ? gt - 1 : lt;
+            int left = lt - lo, mid = midHi - midLo + 1, right = hi - gt;
+            if (left >= mid && left >= right) {
+                dualPivot(a, midLo, midHi, depth);
+                dualPivot(a, gt + 1, hi, depth);
+                hi = lt - 1;
+            } else if (mid >= right) {
+                dualPivot(a, lo, lt - 1, depth);
+                dualPivot(a, gt + 1, hi, depth);
+                lo = midLo;
+                hi = midHi;
+            } else {
+                dualPivot(a, lo, lt - 1, depth);
+                dualPivot(a, midLo, midHi, depth);
+                lo = gt + 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
     // Hoare partition: trả về vị trí ngăn (p), bảo đảm [lo..p] <= pivot <= [p+1..hi]
     private static int hoarePartition(int[] a, int lo, int hi) {
         int pivot = a[lo];
@@ -60,6 +257,57 @@ public class QuickSortInt {
         }
     }
 
+    private static int pivotIndex(int[] a, int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        if (hi - lo + 1 < NINTHER_MIN) return medianOfThree(a, lo, mid, hi);
+        // Ninther (Tukey): trung vị của 3 bộ median-of-three trải đều trên đoạn
+        int e = (hi - lo) / 8;
+        int m1 = medianOfThree(a, lo, lo + e, lo + 2 * e);
+        int m2 = medianOfThree(a, mid - e, mid, mid + e);
+        int m3 = medianOfThree(a, hi - 2 * e, hi - e, hi);
+        return medianOfThree(a, m1, m2, m3);
+    }
+
+    // Sắp 5 phần tử ở 5 vị trí tăng dần (insertion sort trên 5 chỉ số)
+    private static void sort5(int[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] idx = {e1, e2, e3, e4, e5};
+        for (int i = 1; i < 5; i++) {
+            int v = a[idx[i]];
+            int j = i - 1;
+            while (j >= 0 && a[idx[j]] > v) {
+                a[idx[j + 1]] = a[idx[j]];
+                j--;
+            }
+            a[idx[j + 1]] = v;
+        }
+    }
+
+    /* ==================== Heapsort (dự phòng của introsort) ==================== */
+    // Như HeapSortDemo (Tuan04) nhưng trên đoạn a[lo..hi] và heapify dạng vòng lặp
+    private static void heapSort(int[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        // 1. Xây max-heap
+        for (int i = n / 2 - 1; i >= 0; i--) heapify(a, lo, n, i);
+        // 2. Trích max từng bước
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, lo, lo + end); // đưa max về cuối
+            heapify(a, lo, end, 0);
+        }
+    }
+
+    // Điều chỉnh heap tại vị trí i (tính từ lo), kích thước heap = size
+    private static void heapify(int[] a, int lo, int size, int i) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1, right = left + 1;
+            if (left < size && a[lo + left] > a[lo + largest]) largest = left;
+            if (right < size && a[lo + right] > a[lo + largest]) largest = right;
+            if (largest == i) return;
+            swap(a, lo + i, lo + largest);
+            i = largest;
+        }
+    }
+
     private static int medianOfThree(int[] a, int i, int j, int k) {
         int ai = a[i], aj = a[j], ak = a[k];
         if (ai < aj) {
@@ -81,14 +329,6 @@ public class QuickSortInt {
         }
     }
 
-    private static void shuffle(int[] a) {
-        ThreadLocalRandom rnd = ThreadLocalRandom.current();
-        for (int i = a.length - 1; i > 0; i--) {
-            int j = rnd.nextInt(i + 1);
-            swap(a, i, j);
-        }
-    }
-
     // Demo
     public static void main(String[] args) {
         int[] arr = {9, 1, 5, 3, 7, 3, 8, 2, 6, 4, 0, 3, 9, 10};
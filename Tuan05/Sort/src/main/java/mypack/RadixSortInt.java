@@ -0,0 +1,131 @@
+package mypack;
+import java.util.Arrays;
+
+/**
+ * Radix sort cho int[] (không so sánh, O(n) mỗi lượt chữ số 8 bit):
+ * - sortLsd: LSD 4 lượt x 8 bit, cần thêm mảng phụ n phần tử. Đếm histogram của cả 4 byte trong
+ *   1 lần duyệt; byte nào mọi phần tử đều giống nhau (dữ liệu khoảng hẹp) thì bỏ qua lượt đó.
+ * - sortInPlace: MSD kiểu "American flag", hoán vị tại chỗ theo từng byte từ cao xuống,
+ *   chỉ tốn 2 mảng đếm 256 ô mỗi mức -> dùng khi không đủ bộ nhớ cho mảng phụ.
+ * - Số âm: byte cao nhất được lật bit dấu (xor 0x80) để thứ tự không dấu của byte trùng thứ tự có dấu.
+ * - sort: tự chọn; mảng nhỏ (< RADIX_MIN) dùng QuickSortInt vì chi phí đếm / mảng phụ không đáng.
+ */
+public class RadixSortInt {
+    // Dưới mức này chi phí đếm 4 histogram + cấp mảng phụ không đáng, QuickSortInt nhanh hơn
+    public static final int RADIX_MIN = 1 << 12;
+    // Đoạn MSD nhỏ hơn mức này dùng insertion sort
+    private static final int MSD_CUTOFF = 64;
+
+    public static void sort(int[] a) {
+        if (a.length < RADIX_MIN) QuickSortInt.sort(a);
+        else sortLsd(a);
+    }
+
+    /* ==================== LSD ==================== */
+    public static void sortLsd(int[] a) {
+        int n = a.length;
+        if (n < 2) return;
+        int[][] count = new int[4][256];
+        for (int v : a) {
+            count[0][v & 0xFF]++;
+            count[1][(v >>> 8) & 0xFF]++;
+            count[2][(v >>> 16) & 0xFF]++;
+            count[3][(v >>> 24) ^ 0x80]++;
+        }
+        int[] src = a, dst = null;
+        for (int pass = 0; pass < 4; pass++) {
+            int[] c = count[pass];
+            int shift = pass * 8;
+            if (c[digit(a[0], shift)] == n) continue; // mọi phần tử cùng 1 byte ở vị trí này
+            if (dst == null) dst = new int[n];
+            // count -> vị trí bắt đầu của từng bucket
+            int sum = 0;
+            for (int b = 0; b < 256; b++) {
+                int t = c[b];
+                c[b] = sum;
+                sum += t;
+            }
+            for (int i = 0; i < n; i++) {
+                int v = src[i];
+                dst[c[digit(v, shift)]++] = v;
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if (src != a) System.arraycopy(src, 0, a, 0, n);
+    }
+
+    /* ==================== MSD tại chỗ (American flag) ==================== */
+    public static void sortInPlace(int[] a) {
+        msd(a, 0, a.length, 24);
+    }
+
+    // Sort a[lo..hi) theo byte tại shift và các byte thấp hơn
+    private static void msd(int[] a, int lo, int hi, int shift) {
+        if (hi - lo <= MSD_CUTOFF) {
+            insertionSort(a, lo, hi);
+            return;
+        }
+        int[] next = new int[256], end = new int[256];
+        for (int i = lo; i < hi; i++) end[digit(a[i], shift)]++;
+        int s = lo;
+        for (int b = 0; b < 256; b++) {
+            next[b] = s;
+            s += end[b];
+            end[b] = s;
+        }
+        // Cả đoạn cùng 1 byte: không cần hoán vị, xuống byte kế tiếp
+        if (end[digit(a[lo], shift)] - next[digit(a[lo], shift)] == hi - lo) {
+            if (shift > 0) msd(a, lo, hi, shift - 8);
+            return;
+        }
+        // Đưa từng phần tử về bucket của nó theo chu trình hoán vị
+        for (int b = 0; b < 256; b++) {
+            while (next[b] < end[b]) {
+                int v = a[next[b]];
+                int d = digit(v, shift);
+                while (d != b) {
+                    int t = a[next[d]];
+                    a[next[d]++] = v;
+                    v = t;
+                    d = digit(v, shift);
+                }
+                a[next[b]++] = v;
+            }
+        }
+        if (shift == 0) return;
+        int start = lo;
+        for (int b = 0; b < 256; b++) {
+            if (end[b] - start > 1) msd(a, start, end[b], shift - 8);
+            start = end[b];
+        }
+    }
+
+    /* ==================== Helpers ==================== */
+    private static int digit(int v, int shift) {
+        return shift == 24 ? (v >>> 24) ^ 0x80 : (v >>> shift) & 0xFF;
+    }
+
+    private static void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int key = a[i];
+            int j = i - 1;
+            while (j >= lo && a[j] > key) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Demo
+    public static void main(String[] args) {
+        int[] arr = {9, -1, 5, 3, Integer.MIN_VALUE, 3, 8, Integer.MAX_VALUE, 6, -4, 0, 3, 9, 10};
+        int[] b = arr.clone();
+        sortLsd(arr);
+        sortInPlace(b);
+        System.out.println(Arrays.toString(arr));
+        System.out.println(Arrays.toString(b));
+    }
+}
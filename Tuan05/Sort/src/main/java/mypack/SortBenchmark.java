@@ -0,0 +1,173 @@
+package mypack;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Đo thời gian sort trên cùng các bộ dữ liệu (ngẫu nhiên, lệch, khoảng hẹp, đã sort, đã sort + 1% nối thêm,
+ * organ pipe, ít giá trị khác nhau):
+ * - int[]: QuickSortInt (từng PartitionScheme, song song với 1..N luồng), RadixSortInt (LSD / MSD tại chỗ)
+ *   so với Arrays.sort và Arrays.parallelSort (commonPool). Cột "speedup" so với QuickSortInt.sort.
+ * - Integer[] + Comparator (n / 10 phần tử): QuickSortGeneric từng PartitionScheme, NaturalMergeSort
+ *   (bộ đệm mặc định / bị chặn) so với Arrays.sort (TimSort), in thêm số lần so sánh / phần tử.
+ * Mỗi thuật toán sort bản sao của dữ liệu gốc, lấy thời gian tốt nhất trong 'reps' lần,
+ * kết quả được so với Arrays.sort để chắc chắn sort đúng.
+ *
+ * Chạy: SortBenchmark [n=10000000] [maxThreads=số lõi] [reps=3]
+ */
+public class SortBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int reps = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Map<String, Consumer<int[]>> algorithms = new LinkedHashMap<>();
+        algorithms.put("QuickSortInt.sort", QuickSortInt::sort);
+        for (PartitionScheme s : PartitionScheme.values()) {
+            if (s != PartitionScheme.AUTO) algorithms.put("QuickSortInt " + s, a -> QuickSortInt.sort(a, s));
+        }
+        algorithms.put("RadixSortInt.sort", RadixSortInt::sort);
+        algorithms.put("RadixSortInt LSD", RadixSortInt::sortLsd);
+        algorithms.put("RadixSortInt MSD in-place", RadixSortInt::sortInPlace);
+        algorithms.put("Arrays.sort", Arrays::sort);
+        algorithms.put("Arrays.parallelSort", Arrays::parallelSort);
+        for (int p = 1; ; p = Math.min(p * 2, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            algorithms.put("QuickSortInt.parallelSort p=" + p, a -> QuickSortInt.parallelSort(a, pool));
+            if (p >= maxThreads) break;
+        }
+
+        for (Map.Entry<String, int[]> d : datasets(n).entrySet()) {
+            int[] data = d.getValue();
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            System.out.printf("%nint[] %s, n=%,d (AUTO -> %s)%n", d.getKey(), n, QuickSortInt.choose(data, 0, n - 1));
+            System.out.printf("%-34s %10s %8s%n", "algorithm", "ms", "speedup");
+            double base = 0;
+            for (Map.Entry<String, Consumer<int[]>> alg : algorithms.entrySet()) {
+                double ms = time(alg.getValue(), data, expected, reps, alg.getKey());
+                if (base == 0) base = ms;
+                System.out.printf("%-34s %10.1f %8.2f%n", alg.getKey(), ms, base / ms);
+            }
+        }
+
+        benchmarkGeneric(Math.max(1, n / 10), reps);
+        System.exit(0); // dừng các ForkJoinPool đã tạo
+    }
+
+    private static void benchmarkGeneric(int n, int reps) {
+        long[] compares = new long[1];
+        Comparator<Integer> counting = (x, y) -> {
+            compares[0]++;
+            return Integer.compare(x, y);
+        };
+        Map<String, Consumer<Integer[]>> algorithms = new LinkedHashMap<>();
+        for (PartitionScheme s : PartitionScheme.values()) {
+            algorithms.put("QuickSortGeneric " + s, a -> QuickSortGeneric.sort(a, counting, s));
+        }
+        algorithms.put("NaturalMergeSort", a -> NaturalMergeSort.sort(a, counting));
+        algorithms.put("NaturalMergeSort buffer=1024", a -> NaturalMergeSort.sort(a, counting, 1024));
+        algorithms.put("Arrays.sort (TimSort)", a -> Arrays.sort(a, counting));
+
+        for (Map.Entry<String, int[]> d : datasets(n).entrySet()) {
+            Integer[] data = Arrays.stream(d.getValue()).boxed().toArray(Integer[]::new);
+            Integer[] expected = data.clone();
+            Arrays.sort(expected);
+            System.out.printf("%nInteger[] %s, n=%,d (AUTO -> %s)%n", d.getKey(), n,
+                    QuickSortGeneric.choose(data, 0, n - 1, Comparator.<Integer>naturalOrder()));
+            System.out.printf("%-34s %10s %12s%n", "algorithm", "ms", "compares/n");
+            for (Map.Entry<String, Consumer<Integer[]>> alg : algorithms.entrySet()) {
+                long best = Long.MAX_VALUE;
+                compares[0] = 0;
+                for (int r = 0; r < reps; r++) {
+                    Integer[] a = data.clone();
+                    long t0 = System.nanoTime();
+                    alg.getValue().accept(a);
+                    best = Math.min(best, System.nanoTime() - t0);
+                    if (!Arrays.equals(a, expected)) throw new IllegalStateException(alg.getKey() + " produced a wrong result");
+                }
+                System.out.printf("%-34s %10.1f %12.2f%n", alg.getKey(), best / 1e6, compares[0] / (double) reps / n);
+            }
+        }
+    }
+
+    private static double time(Consumer<int[]> sorter, int[] data, int[] expected, int reps, String name) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < reps; r++) {
+            int[] a = data.clone();
+            long t0 = System.nanoTime();
+            sorter.accept(a);
+            best = Math.min(best, System.nanoTime() - t0);
+            if (!Arrays.equals(a, expected)) throw new IllegalStateException(name + " produced a wrong result");
+        }
+        return best / 1e6;
+    }
+
+    /* ==================== Dữ liệu ==================== */
+    static Map<String, int[]> datasets(int n) {
+        Map<String, int[]> m = new LinkedHashMap<>();
+        m.put("uniform", uniform(n, 1));
+        m.put("skewed", skewed(n, 5));
+        m.put("small range [0, 65536)", smallRange(n, 1 << 16, 6));
+        m.put("sorted", sorted(n));
+        m.put("sorted + 1% appended", sortedWithTail(n, n / 100, 4));
+        m.put("organ pipe", organPipe(n));
+        m.put("16 distinct", fewDistinct(n, 16, 2));
+        m.put("1000 distinct", fewDistinct(n, 1000, 3));
+        return m;
+    }
+
+    static int[] uniform(int n, long seed) {
+        Random rnd = new Random(seed);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = rnd.nextInt();
+        return a;
+    }
+
+    // phân phối mũ: phần lớn giá trị nhỏ, ít giá trị rất lớn (kiểu lương, số lượng...)
+    static int[] skewed(int n, long seed) {
+        Random rnd = new Random(seed);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = (int) Math.min(Integer.MAX_VALUE, -Math.log(1 - rnd.nextDouble()) * 10_000);
+        return a;
+    }
+
+    static int[] smallRange(int n, int range, long seed) {
+        Random rnd = new Random(seed);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = rnd.nextInt(range);
+        return a;
+    }
+
+    static int[] sorted(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = i;
+        return a;
+    }
+
+    // danh sách đã sort theo mã + 1 lô nhỏ mới nối vào cuối (kiểu dữ liệu nhân viên hay gặp)
+    static int[] sortedWithTail(int n, int tail, long seed) {
+        Random rnd = new Random(seed);
+        int[] a = sorted(n);
+        for (int i = n - tail; i < n; i++) a[i] = rnd.nextInt(n);
+        return a;
+    }
+
+    // tăng rồi giảm: dữ liệu có cấu trúc hay làm pivot cố định chọn sai
+    static int[] organPipe(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = i < n / 2 ? i : n - i;
+        return a;
+    }
+
+    static int[] fewDistinct(int n, int k, long seed) {
+        Random rnd = new Random(seed);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = rnd.nextInt(k) * 7919;
+        return a;
+    }
+}
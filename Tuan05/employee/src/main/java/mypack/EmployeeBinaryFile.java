@@ -0,0 +1,241 @@
+package mypack;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * File nhị phân cho danh sách nhân viên, đọc bằng memory-map và giải mã trường khi cần:
+ * - Header 32 byte: magic "EMPB", version (short), 0 (short), kích thước bản ghi (int), số bản ghi (long),
+ *   kích thước vùng chuỗi (long), 0 (int).
+ * - n bản ghi cố định 32 byte: lương (double), rồi mã, tên, họ, mỗi trường là (offset int, độ dài int)
+ *   trỏ vào vùng chuỗi (độ dài -1 nếu null).
+ * - Vùng chuỗi: các chuỗi UTF-8 nối liền; chuỗi trùng nhau (tên, họ) chỉ ghi 1 lần.
+ * Số nguyên ghi big-endian. Mở file chỉ đọc header rồi map 2 vùng, không đọc bản ghi nào -> gần như tức thì;
+ * lương đọc thẳng từ vùng bản ghi nên sort theo lương không phải giải mã chuỗi nào.
+ * Giới hạn: vùng bản ghi và vùng chuỗi mỗi vùng < 2 GB (1 lần map, offset int).
+ */
+public final class EmployeeBinaryFile implements Closeable {
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x454D5042; // "EMPB"
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 32;
+    private static final int BUFFER = 1 << 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer records, strings;
+    private final int size;
+
+    private EmployeeBinaryFile(FileChannel channel, MappedByteBuffer records, MappedByteBuffer strings, int size) {
+        this.channel = channel;
+        this.records = records;
+        this.strings = strings;
+        this.size = size;
+    }
+
+    /* ==================== Ghi ==================== */
+    /** Ghi danh sách ra file (ghi đè). Bản ghi và chuỗi được ghi song song vào 2 vùng qua FileChannel. */
+    public static void write(Path path, Collection<Employee> employees) throws IOException {
+        long n = employees.size();
+        if (n * RECORD_SIZE > Integer.MAX_VALUE) throw new IOException("Quá nhiều bản ghi: " + n);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long stringsStart = HEADER_SIZE + n * RECORD_SIZE;
+            ByteBuffer rec = ByteBuffer.allocate(BUFFER), str = ByteBuffer.allocate(BUFFER);
+            long recPos = HEADER_SIZE, strPos = stringsStart;
+            int heapSize = 0;
+            Map<String, Integer> offsets = new HashMap<>();
+            for (Employee e : employees) {
+                if (rec.remaining() < RECORD_SIZE) recPos += flush(ch, rec, recPos);
+                rec.putDouble(e.getSalary());
+                String[] fields = {e.getEmployeeCode(), e.getFirstName(), e.getLastName()};
+                for (int f = 0; f < fields.length; f++) {
+                    String s = fields[f];
+                    if (s == null) {
+                        rec.putInt(0).putInt(-1);
+                        continue;
+                    }
+                    byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                    // mã thường không trùng: chỉ ghi nhớ tên / họ (f > 0) để bảng không lớn bằng số bản ghi
+                    Integer off = f == 0 ? null : offsets.get(s);
+                    if (off == null) {
+                        if ((long) heapSize + b.length > Integer.MAX_VALUE) throw new IOException("Vùng chuỗi quá 2 GB");
+                        off = heapSize;
+                        heapSize += b.length;
+                        if (f > 0) offsets.put(s, off);
+                        for (int p = 0; p < b.length; ) {
+                            if (!str.hasRemaining()) strPos += flush(ch, str, strPos);
+                            int len = Math.min(str.remaining(), b.length - p);
+                            str.put(b, p, len);
+                            p += len;
+                        }
+                    }
+                    rec.putInt(off).putInt(b.length);
+                }
+            }
+            flush(ch, rec, recPos);
+            flush(ch, str, strPos);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0).putInt(RECORD_SIZE)
+                    .putLong(n).putLong(heapSize).putInt(0).flip();
+            while (header.hasRemaining()) ch.write(header, header.position());
+        }
+    }
+
+    // Ghi hết buf tại vị trí pos, trả số byte đã ghi
+    private static int flush(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        buf.flip();
+        int written = buf.remaining();
+        while (buf.hasRemaining()) ch.write(buf, pos + buf.position());
+        buf.clear();
+        return written;
+    }
+
+    /* ==================== Đọc ==================== */
+    public static EmployeeBinaryFile open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (ch.read(header, header.position()) < 0) break;
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Không phải file nhân viên nhị phân: " + path);
+            }
+            int version = header.getShort();
+            header.getShort();
+            if (version != VERSION) throw new IOException("Không hỗ trợ phiên bản " + version + " của " + path);
+            int recordSize = header.getInt();
+            long n = header.getLong(), heapSize = header.getLong();
+            long recordsSize = n * recordSize;
+            if (recordSize != RECORD_SIZE || n < 0 || heapSize < 0 || recordsSize > Integer.MAX_VALUE
+                    || heapSize > Integer.MAX_VALUE || HEADER_SIZE + recordsSize + heapSize > ch.size()) {
+                throw new IOException("Header hỏng: " + path);
+            }
+            MappedByteBuffer records = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, recordsSize);
+            MappedByteBuffer strings = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + recordsSize, heapSize);
+            return new EmployeeBinaryFile(ch, records, strings, (int) n);
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double salary(int i) {
+        return records.getDouble(checkIndex(i) * RECORD_SIZE);
+    }
+
+    public String code(int i) {
+        return string(checkIndex(i) * RECORD_SIZE + 8);
+    }
+
+    public String firstName(int i) {
+        return string(checkIndex(i) * RECORD_SIZE + 16);
+    }
+
+    public String lastName(int i) {
+        return string(checkIndex(i) * RECORD_SIZE + 24);
+    }
+
+    // Giải mã chuỗi theo (offset, độ dài) ở vị trí field của vùng bản ghi
+    private String string(int field) {
+        int off = records.getInt(field), len = records.getInt(field + 4);
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        strings.get(off, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Bản ghi " + i + ", số bản ghi " + size);
+        return i;
+    }
+
+    /** Giải mã đầy đủ 1 bản ghi. */
+    public Employee get(int i) {
+        return new Employee(code(i), firstName(i), lastName(i), salary(i));
+    }
+
+    /** View chỉ đọc: mỗi lần get mới giải mã bản ghi đó. */
+    public List<Employee> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Employee get(int i) {
+                return EmployeeBinaryFile.this.get(i);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /** Chỉ số bản ghi theo lương (giảm dần nếu descending, ổn định); chỉ đọc cột lương. */
+    public int[] sortBySalary(boolean descending) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = EmployeeKeySort.salaryKey(records.getDouble(i * RECORD_SIZE), descending);
+        return EmployeeKeySort.sortedOrder(keys, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Demo: ghi n nhân viên ngẫu nhiên, so thời gian mở + sort theo lương với đọc JSON bằng Gson
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Employee> data = EmployeeSortBenchmark.randomEmployees(n, 42);
+        Path bin = Files.createTempFile("employees", ".bin");
+        Path json = Files.createTempFile("employees", ".json");
+        try {
+            long t0 = System.nanoTime();
+            write(bin, data);
+            long t1 = System.nanoTime();
+            try (var w = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+                w.write(new com.google.gson.Gson().toJson(data));
+            }
+            System.out.printf("n=%,d: write %.1f ms, binary %,d B, JSON %,d B%n",
+                    n, (t1 - t0) / 1e6, Files.size(bin), Files.size(json));
+
+            t0 = System.nanoTime();
+            try (EmployeeBinaryFile f = open(bin)) {
+                t1 = System.nanoTime();
+                int[] order = f.sortBySalary(true);
+                long t2 = System.nanoTime();
+                System.out.printf("binary: open %.2f ms, sortBySalary %.1f ms, top: %s%n",
+                        (t1 - t0) / 1e6, (t2 - t1) / 1e6, f.get(order[0]));
+                if (!f.get(order[0]).toString().equals(TopK.topK(data, 1, EmployeeComparators.BY_SALARY_DESC).get(0).toString())) {
+                    throw new IllegalStateException("binary file produced a wrong result");
+                }
+            }
+            t0 = System.nanoTime();
+            List<Employee> parsed;
+            try (var in = Files.newInputStream(json)) {
+                parsed = EmployeeJsonStream.readAll(in);
+            }
+            t1 = System.nanoTime();
+            System.out.printf("JSON: parse %.1f ms (%,d records)%n", (t1 - t0) / 1e6, parsed.size());
+        } finally {
+            Files.deleteIfExists(bin);
+            Files.deleteIfExists(json);
+        }
+    }
+}
@@ -17,4 +17,14 @@ public final class EmployeeComparators {
     // 3) Theo lương giảm dần
     public static final Comparator<Employee> BY_SALARY_DESC =
             Comparator.comparingDouble(Employee::getSalary).reversed();
+
+    /** Thứ tự theo tên dùng trên dòng lệnh: code, name, salary. */
+    public static Comparator<Employee> forOrder(String order) {
+        return switch (order) {
+            case "code" -> BY_CODE_ASC;
+            case "name" -> BY_FIRSTNAME_THEN_LASTNAME_ASC;
+            case "salary" -> BY_SALARY_DESC;
+            default -> throw new IllegalArgumentException("Thứ tự không hợp lệ '" + order + "', chọn code, name hoặc salary");
+        };
+    }
 }
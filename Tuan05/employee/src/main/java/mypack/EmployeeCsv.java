@@ -0,0 +1,113 @@
+package mypack;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Đọc / ghi nhân viên dạng CSV (RFC 4180): dòng tiêu đề "employeeCode,firstName,lastName,salary",
+ * mỗi dòng sau là 1 nhân viên. Trường chứa dấu phẩy, nháy kép hoặc xuống dòng được bọc trong "...",
+ * nháy kép bên trong viết thành "". Đọc streaming từng bản ghi như EmployeeJsonStream.
+ */
+public final class EmployeeCsv {
+    public static final String HEADER = "employeeCode,firstName,lastName,salary";
+
+    private EmployeeCsv() {
+    }
+
+    /** Đọc từng nhân viên (bỏ dòng tiêu đề) và gọi action; trả số bản ghi đã đọc. Không đóng in. */
+    public static long forEach(InputStream in, Consumer<? super Employee> action) throws IOException {
+        return forEach(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), action);
+    }
+
+    public static long forEach(Reader reader, Consumer<? super Employee> action) throws IOException {
+        List<String> fields = new ArrayList<>(4);
+        long count = 0, record = 0;
+        if (!readRecord(reader, fields)) return 0;
+        if (!String.join(",", fields).equals(HEADER)) {
+            throw new IOException("Dòng tiêu đề CSV phải là: " + HEADER);
+        }
+        while (readRecord(reader, fields)) {
+            record++;
+            if (fields.size() == 1 && fields.get(0).isEmpty()) continue; // dòng trống
+            if (fields.size() != 4) throw new IOException("Bản ghi " + record + ": cần 4 trường, có " + fields.size());
+            double salary;
+            try {
+                salary = Double.parseDouble(fields.get(3));
+            } catch (NumberFormatException ex) {
+                throw new IOException("Bản ghi " + record + ": lương không hợp lệ '" + fields.get(3) + "'");
+            }
+            action.accept(new Employee(fields.get(0), fields.get(1), fields.get(2), salary));
+            count++;
+        }
+        return count;
+    }
+
+    // Đọc 1 bản ghi (có thể nhiều dòng nếu trường được bọc nháy); false nếu đã hết dữ liệu
+    private static boolean readRecord(Reader in, List<String> fields) throws IOException {
+        fields.clear();
+        StringBuilder sb = new StringBuilder();
+        int c = in.read();
+        if (c == -1) return false;
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("CSV thiếu dấu nháy đóng");
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue; // xử lý c như ký tự ngoài nháy
+                    }
+                }
+                sb.append((char) c);
+            } else if (c == '"' && sb.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                sb.append((char) c);
+            }
+            c = in.read();
+        }
+        fields.add(sb.toString());
+        return true;
+    }
+
+    public static void writeHeader(Writer out) throws IOException {
+        out.write(HEADER);
+        out.write('\n');
+    }
+
+    public static void write(Writer out, Employee e) throws IOException {
+        writeField(out, e.getEmployeeCode());
+        out.write(',');
+        writeField(out, e.getFirstName());
+        out.write(',');
+        writeField(out, e.getLastName());
+        out.write(',');
+        out.write(Double.toString(e.getSalary()));
+        out.write('\n');
+    }
+
+    private static void writeField(Writer out, String s) throws IOException {
+        if (s == null) return;
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,278 @@
+package mypack;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sort ngoài (external merge sort) file nhân viên lớn hơn bộ nhớ:
+ * 1. Đọc streaming từ JSON / CSV (EmployeeJsonStream / EmployeeCsv), gom từng chunk 'chunkSize' bản ghi,
+ *    sort chunk trong bộ nhớ bằng Sorter auto rồi ghi ra file tạm (run) dạng nhị phân gọn:
+ *    số bản ghi (long), rồi mỗi bản ghi 3 chuỗi UTF-8 (độ dài int, -1 nếu null) + lương (double).
+ * 2. Trộn k đường các run bằng PriorityQueue (heap) theo phần tử đầu của mỗi run. Nhiều hơn 'fanIn' run thì
+ *    trộn thành nhiều lượt (mỗi lượt gộp từng nhóm fanIn run liền nhau) để giới hạn số file mở và bộ đệm.
+ * 3. Kết quả được ghi streaming ra file JSON / CSV (chọn theo đuôi file).
+ * Bộ nhớ cần ~ chunkSize bản ghi + fanIn bộ đệm đọc, không phụ thuộc kích thước file.
+ * Ổn định: sort chunk ổn định, và khi trùng khóa thì run đứng trước (dữ liệu đọc trước) được lấy trước.
+ *
+ * Chạy: EmployeeExternalSort input.(json|csv) output.(json|csv) [--order=code|name|salary]
+ *       [--chunk=524288] [--fan-in=64] [--tmp=thư mục tạm]
+ */
+public final class EmployeeExternalSort {
+    public static final int DEFAULT_CHUNK = 1 << 19;
+    public static final int DEFAULT_FAN_IN = 64;
+    private static final int BUFFER = 1 << 16;
+
+    private EmployeeExternalSort() {
+    }
+
+    /** Sort input vào output; trả số bản ghi. tempDir null: thư mục tạm của hệ thống. */
+    public static long sort(Path input, Path output, Comparator<Employee> cmp, int chunkSize, int fanIn, Path tempDir)
+            throws IOException {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize phải >= 1");
+        if (fanIn < 2) throw new IllegalArgumentException("fanIn phải >= 2");
+        Path dir = tempDir != null ? tempDir : Path.of(System.getProperty("java.io.tmpdir"));
+        List<Path> runs = new ArrayList<>();
+        // run mới của lượt trộn đang chạy; finally xóa cả 2 danh sách nếu có lỗi giữa chừng
+        List<Path> next = new ArrayList<>();
+        List<Employee> chunk = new ArrayList<>(Math.min(chunkSize, 1 << 16));
+        Sorter sorter = Sorters.get(Sorters.DEFAULT);
+        try {
+            long count;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(input), BUFFER)) {
+                // lỗi ghi file tạm trong Consumer được bọc trong UncheckedIOException
+                Consumer<Employee> spill = e -> {
+                    chunk.add(e);
+                    if (chunk.size() == chunkSize) {
+                        sorter.sort(chunk, cmp);
+                        runs.add(writeRun(chunk, dir));
+                        chunk.clear();
+                    }
+                };
+                count = isCsv(input) ? EmployeeCsv.forEach(in, spill) : EmployeeJsonStream.forEach(in, spill);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            sorter.sort(chunk, cmp);
+            if (runs.isEmpty()) {
+                // vừa 1 chunk: không cần file tạm
+                try (RecordWriter out = openOutput(output)) {
+                    for (Employee e : chunk) out.write(e);
+                }
+                return count;
+            }
+            if (!chunk.isEmpty()) runs.add(writeRun(chunk, dir));
+            chunk.clear();
+
+            while (runs.size() > fanIn) {
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path merged = Files.createTempFile(dir, "employee-run", ".bin");
+                    next.add(merged);
+                    try (RecordWriter out = runWriter(merged, countRecords(group))) {
+                        merge(group, cmp, out);
+                    }
+                    for (Path p : group) Files.delete(p);
+                }
+                runs.clear();
+                runs.addAll(next);
+                next.clear();
+            }
+            try (RecordWriter out = openOutput(output)) {
+                merge(runs, cmp, out);
+            }
+            return count;
+        } finally {
+            for (Path p : runs) Files.deleteIfExists(p);
+            for (Path p : next) Files.deleteIfExists(p);
+        }
+    }
+
+    /* ==================== Trộn k đường ==================== */
+    private static void merge(List<Path> runs, Comparator<Employee> cmp, RecordWriter out) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(runs.size(), (a, b) -> {
+            int c = cmp.compare(a.head, b.head);
+            return c != 0 ? c : Integer.compare(a.index, b.index);
+        });
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader r = new RunReader(runs.get(i), i);
+                readers.add(r);
+                if (r.advance()) heap.add(r);
+            }
+            while (!heap.isEmpty()) {
+                RunReader r = heap.poll();
+                out.write(r.head);
+                if (r.advance()) heap.add(r);
+            }
+        } finally {
+            for (RunReader r : readers) r.close();
+        }
+    }
+
+    private static long countRecords(List<Path> runs) throws IOException {
+        long total = 0;
+        for (Path p : runs) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(p))) {
+                total += in.readLong();
+            }
+        }
+        return total;
+    }
+
+    /* ==================== File run nhị phân ==================== */
+    private static Path writeRun(List<Employee> chunk, Path dir) {
+        try {
+            Path p = Files.createTempFile(dir, "employee-run", ".bin");
+            try (RecordWriter out = runWriter(p, chunk.size())) {
+                for (Employee e : chunk) out.write(e);
+            }
+            return p;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static RecordWriter runWriter(Path p, long count) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(p), BUFFER));
+        out.writeLong(count);
+        return new RecordWriter() {
+            @Override
+            public void write(Employee e) throws IOException {
+                writeString(out, e.getEmployeeCode());
+                writeString(out, e.getFirstName());
+                writeString(out, e.getLastName());
+                out.writeDouble(e.getSalary());
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // Con trỏ đọc tuần tự 1 run; head là bản ghi hiện tại
+    private static final class RunReader implements Closeable {
+        final int index;
+        final DataInputStream in;
+        long remaining;
+        Employee head;
+
+        RunReader(Path p, int index) throws IOException {
+            this.index = index;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p), BUFFER));
+            this.remaining = in.readLong();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            head = new Employee(readString(in), readString(in), readString(in), in.readDouble());
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /* ==================== Ghi kết quả ==================== */
+    private interface RecordWriter extends Closeable {
+        void write(Employee e) throws IOException;
+    }
+
+    private static boolean isCsv(Path p) {
+        return p.getFileName().toString().toLowerCase().endsWith(".csv");
+    }
+
+    private static RecordWriter openOutput(Path p) throws IOException {
+        Writer w = Files.newBufferedWriter(p, StandardCharsets.UTF_8);
+        if (isCsv(p)) {
+            EmployeeCsv.writeHeader(w);
+            return new RecordWriter() {
+                @Override
+                public void write(Employee e) throws IOException {
+                    EmployeeCsv.write(w, e);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    w.close();
+                }
+            };
+        }
+        JsonWriter json = new JsonWriter(w);
+        json.setIndent("  ");
+        json.beginArray();
+        return new RecordWriter() {
+            @Override
+            public void write(Employee e) throws IOException {
+                EmployeeJsonStream.writeEmployee(json, e);
+            }
+
+            @Override
+            public void close() throws IOException {
+                json.endArray();
+                json.close();
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Chạy: EmployeeExternalSort input.(json|csv) output.(json|csv) [--order=code|name|salary]"
+                    + " [--chunk=" + DEFAULT_CHUNK + "] [--fan-in=" + DEFAULT_FAN_IN + "] [--tmp=thư mục tạm]");
+            return;
+        }
+        Comparator<Employee> cmp = EmployeeComparators.BY_CODE_ASC;
+        int chunk = DEFAULT_CHUNK, fanIn = DEFAULT_FAN_IN;
+        Path tmp = null;
+        for (int i = 2; i < args.length; i++) {
+            String a = args[i];
+            if (a.startsWith("--order=")) cmp = EmployeeComparators.forOrder(a.substring("--order=".length()));
+            else if (a.startsWith("--chunk=")) chunk = Integer.parseInt(a.substring("--chunk=".length()));
+            else if (a.startsWith("--fan-in=")) fanIn = Integer.parseInt(a.substring("--fan-in=".length()));
+            else if (a.startsWith("--tmp=")) tmp = Path.of(a.substring("--tmp=".length()));
+            else throw new IllegalArgumentException("Tham số không hợp lệ: " + a);
+        }
+        long t0 = System.nanoTime();
+        long n = sort(Path.of(args[0]), Path.of(args[1]), cmp, chunk, fanIn, tmp);
+        System.out.printf("Sorted %,d records in %.1f ms%n", n, (System.nanoTime() - t0) / 1e6);
+    }
+}
@@ -0,0 +1,256 @@
+package mypack;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Chỉ mục nhiều thứ tự trên 1 danh sách nhân viên, không sort lại cho mỗi lần cần:
+ * - Mỗi Comparator (so theo đối tượng, ví dụ các hằng của EmployeeComparators) có 1 hoán vị int[] được
+ *   sort 1 lần khi cần lần đầu rồi giữ lại; sorted(cmp) trả view O(1) trên hoán vị đó.
+ * - add / update cập nhật từng hoán vị đã có bằng tìm nhị phân + dịch mảng (O(log n) so sánh + O(n) chép),
+ *   không sort lại. Trùng khóa thì dòng thêm trước đứng trước, đúng như sort ổn định danh sách.
+ * - Truy vấn khoảng trên hoán vị đã sort: lương trong [min, max], tên / mã bắt đầu bằng tiền tố
+ *   (không phân biệt hoa thường) -> tìm nhị phân 2 đầu đoạn trên hoán vị, chỉ duyệt các phần tử trong đoạn.
+ * Employee đã thêm không được sửa trực tiếp (hoán vị sẽ sai); dùng update với object mới.
+ */
+public final class EmployeeIndex {
+    private final List<Employee> rows = new ArrayList<>();
+    private final Map<Comparator<? super Employee>, int[]> orders = new IdentityHashMap<>();
+    private final Sorter sorter;
+    // true: các Comparator có sẵn trong EmployeeComparators dùng khóa tính trước thay vì sorter
+    private final boolean keyed;
+
+    /** Sorter mặc định (auto); các thứ tự có sẵn trong EmployeeComparators được sort bằng khóa. */
+    public EmployeeIndex(Collection<Employee> employees) {
+        this(employees, Sorters.get(Sorters.DEFAULT));
+    }
+
+    /**
+     * sorter: dùng để sort hoán vị lần đầu. Nếu là auto (Sorters.DEFAULT) thì các thứ tự có sẵn
+     * trong EmployeeComparators vẫn đi đường khóa; sorter khác được dùng cho mọi Comparator.
+     */
+    public EmployeeIndex(Collection<Employee> employees, Sorter sorter) {
+        this.sorter = sorter;
+        this.keyed = sorter == Sorters.get(Sorters.DEFAULT);
+        rows.addAll(employees);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Employee get(int row) {
+        return rows.get(row);
+    }
+
+    /* ==================== Thứ tự ==================== */
+    /** Danh sách theo thứ tự cmp (view chỉ đọc, phản ánh các thay đổi sau đó). */
+    public List<Employee> sorted(Comparator<? super Employee> cmp) {
+        order(cmp);
+        return new AbstractList<>() {
+            @Override
+            public Employee get(int i) {
+                return rows.get(orders.get(cmp)[i]);
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    // Hoán vị đã sort theo cmp, sort lần đầu nếu chưa có
+    private int[] order(Comparator<? super Employee> cmp) {
+        int[] perm = orders.get(cmp);
+        if (perm == null) {
+            perm = build(cmp);
+            orders.put(cmp, perm);
+        }
+        return perm;
+    }
+
+    /**
+     * Sort hoán vị lần đầu; kết quả luôn xếp các dòng trùng khóa theo số dòng tăng dần (position() dựa vào điều này).
+     * Với sorter auto:
+     * - BY_SALARY_DESC / BY_CODE_ASC: khóa long + radix của EmployeeKeySort (ổn định), nhóm trùng tiền tố mã
+     *   được sort tiếp bằng merge sort ổn định trên int[];
+     * - BY_FIRSTNAME_THEN_LASTNAME_ASC: khóa byte[] của EmployeeSortKeys, merge sort ổn định trên int[];
+     * - Comparator khác (hoặc mọi Comparator khi chọn sorter khác auto): sort bản sao List<Employee> bằng sorter đã chọn (để sorter vẫn nhận ra cmp),
+     *   đổi lại số dòng theo đối tượng, rồi sắp số dòng tăng dần trong từng nhóm trùng khóa
+     *   (sorter không ổn định như quick có thể đảo chúng).
+     */
+    private int[] build(Comparator<? super Employee> cmp) {
+        int n = rows.size();
+        if (!keyed) return sortedBySorter(cmp);
+        if (cmp == EmployeeComparators.BY_SALARY_DESC) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) keys[i] = EmployeeKeySort.salaryKey(rows.get(i).getSalary(), true);
+            return EmployeeKeySort.sortedOrder(keys, ForkJoinPool.commonPool());
+        }
+        if (cmp == EmployeeComparators.BY_CODE_ASC) {
+            boolean packed = EmployeeKeySort.allLatin1Prefix(rows);
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) keys[i] = EmployeeKeySort.codePrefixKey(rows.get(i).getEmployeeCode(), packed);
+            int[] perm = EmployeeKeySort.sortedOrder(keys, ForkJoinPool.commonPool());
+            int[] aux = new int[n];
+            for (int i = 0; i < n; ) {
+                int j = i + 1;
+                while (j < n && keys[j] == keys[i]) j++;
+                if (j - i > 1) mergeSort(perm, aux, i, j, (x, y) -> cmp.compare(rows.get(x), rows.get(y)));
+                i = j;
+            }
+            return perm;
+        }
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        if (cmp == EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC) {
+            byte[][] keys = new byte[n][];
+            for (int i = 0; i < n; i++) keys[i] = EmployeeSortKeys.nameKey(rows.get(i));
+            mergeSort(perm, new int[n], 0, n, (x, y) -> Arrays.compareUnsigned(keys[x], keys[y]));
+            return perm;
+        }
+        return sortedBySorter(cmp);
+    }
+
+    private int[] sortedBySorter(Comparator<? super Employee> cmp) {
+        int n = rows.size();
+        int[] perm = new int[n];
+        List<Employee> copy = new ArrayList<>(rows);
+        sorter.sort(copy, cmp);
+        // cùng 1 object có thể nằm ở nhiều dòng: lấy lần lượt các số dòng của nó
+        Map<Employee, ArrayDeque<Integer>> rowsOf = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) rowsOf.computeIfAbsent(rows.get(i), e -> new ArrayDeque<>()).add(i);
+        for (int i = 0; i < n; i++) perm[i] = rowsOf.get(copy.get(i)).poll();
+        for (int i = 0; i < n; ) {
+            int j = i + 1;
+            while (j < n && cmp.compare(copy.get(i), copy.get(j)) == 0) j++;
+            if (j - i > 1) Arrays.sort(perm, i, j);
+            i = j;
+        }
+        return perm;
+    }
+
+    // Merge sort ổn định a[lo..hi) theo cmp trên số dòng, aux là mảng phụ cùng kích thước
+    private static void mergeSort(int[] a, int[] aux, int lo, int hi, IntBinaryOperator cmp) {
+        if (hi - lo < 2) return;
+        int mid = (lo + hi) >>> 1;
+        mergeSort(a, aux, lo, mid, cmp);
+        mergeSort(a, aux, mid, hi, cmp);
+        if (cmp.applyAsInt(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, lo, aux, lo, hi - lo);
+        int i = lo, j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (i < mid && (j >= hi || cmp.applyAsInt(aux[i], aux[j]) <= 0)) a[k] = aux[i++];
+            else a[k] = aux[j++];
+        }
+    }
+
+    /* ==================== Cập nhật ==================== */
+    /** Thêm nhân viên, trả số dòng của nó. */
+    public int add(Employee e) {
+        int row = rows.size();
+        rows.add(e);
+        for (Map.Entry<Comparator<? super Employee>, int[]> o : orders.entrySet()) {
+            int[] perm = o.getValue();
+            int pos = position(perm, perm.length, o.getKey(), e, row);
+            int[] next = new int[perm.length + 1];
+            System.arraycopy(perm, 0, next, 0, pos);
+            next[pos] = row;
+            System.arraycopy(perm, pos, next, pos + 1, perm.length - pos);
+            o.setValue(next);
+        }
+        return row;
+    }
+
+    /** Thay nhân viên ở dòng row bằng e (giữ số dòng). */
+    public void update(int row, Employee e) {
+        Employee old = rows.get(row);
+        for (Map.Entry<Comparator<? super Employee>, int[]> o : orders.entrySet()) {
+            int[] perm = o.getValue();
+            Comparator<? super Employee> cmp = o.getKey();
+            int from = position(perm, perm.length, cmp, old, row);
+            if (from == perm.length || perm[from] != row) {
+                throw new IllegalStateException("Chỉ mục hỏng: không tìm thấy dòng " + row + " trong thứ tự " + cmp);
+            }
+            // bỏ row khỏi vị trí cũ, tìm vị trí mới trên phần còn lại rồi chèn lại
+            // (phần còn lại không chứa row nên không đọc tới rows.get(row))
+            System.arraycopy(perm, from + 1, perm, from, perm.length - from - 1);
+            int to = position(perm, perm.length - 1, cmp, e, row);
+            System.arraycopy(perm, to, perm, to + 1, perm.length - 1 - to);
+            perm[to] = row;
+        }
+        rows.set(row, e);
+    }
+
+    // Vị trí của (e, row) trong perm[0..n): so theo cmp, trùng thì theo số dòng
+    private int position(int[] perm, int n, Comparator<? super Employee> cmp, Employee e, int row) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int r = perm[mid];
+            int c = cmp.compare(rows.get(r), e);
+            if (c < 0 || (c == 0 && r < row)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /* ==================== Truy vấn khoảng ==================== */
+    /** Nhân viên có min <= lương <= max, lương giảm dần. */
+    public List<Employee> salaryBetween(double min, double max) {
+        Comparator<Employee> cmp = EmployeeComparators.BY_SALARY_DESC;
+        return range(cmp, e -> e.getSalary() > max, e -> e.getSalary() >= min);
+    }
+
+    /** Nhân viên có tên bắt đầu bằng prefix (không phân biệt hoa thường), theo tên rồi họ. */
+    public List<Employee> firstNameStartsWith(String prefix) {
+        return prefixRange(EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC, Employee::getFirstName, prefix);
+    }
+
+    /** Nhân viên có mã bắt đầu bằng prefix (không phân biệt hoa thường), theo mã. */
+    public List<Employee> codeStartsWith(String prefix) {
+        return prefixRange(EmployeeComparators.BY_CODE_ASC, Employee::getEmployeeCode, prefix);
+    }
+
+    // Với CASE_INSENSITIVE_ORDER, các chuỗi có cùng tiền tố nằm liền nhau trong thứ tự
+    private List<Employee> prefixRange(Comparator<Employee> cmp, Function<Employee, String> field,
+                                       String prefix) {
+        return range(cmp,
+                e -> String.CASE_INSENSITIVE_ORDER.compare(field.apply(e), prefix) < 0,
+                e -> String.CASE_INSENSITIVE_ORDER.compare(field.apply(e), prefix) < 0
+                        || field.apply(e).regionMatches(true, 0, prefix, 0, prefix.length()));
+    }
+
+    /**
+     * Đoạn của thứ tự cmp từ phần tử đầu tiên không còn thỏa before, tới trước phần tử đầu tiên không thỏa inRange.
+     * before và inRange phải đơn điệu theo cmp (đúng ở một đoạn đầu rồi sai đến hết).
+     */
+    private List<Employee> range(Comparator<Employee> cmp, Predicate<Employee> before, Predicate<Employee> inRange) {
+        int[] perm = order(cmp);
+        int from = firstFalse(perm, 0, before), to = firstFalse(perm, from, inRange);
+        List<Employee> out = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) out.add(rows.get(perm[i]));
+        return out;
+    }
+
+    private int firstFalse(int[] perm, int lo, Predicate<Employee> p) {
+        int hi = perm.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (p.test(rows.get(perm[mid]))) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,221 @@
+package mypack;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Đọc mảng JSON nhân viên song song:
+ * 1. Map file vào bộ nhớ, quét 1 lượt các byte để tìm biên các object cấp 1 trong mảng (theo dõi độ sâu
+ *    {}/[] , chuỗi "..." và ký tự thoát \ để dấu ngoặc trong chuỗi không bị tính). Byte của ký tự UTF-8
+ *    nhiều byte đều >= 0x80 nên không bao giờ trùng ký tự cấu trúc.
+ * 2. Gom các object liền nhau thành chunk khoảng 'chunkBytes' byte; mỗi chunk "[" + đoạn byte + "]" là 1 mảng
+ *    JSON hợp lệ, được EmployeeJsonStream parse song song trên ForkJoinPool.
+ * 3. Nối kết quả các chunk theo thứ tự -> cùng thứ tự với file.
+ * Giới hạn: file < 2 GB (1 lần map); file lớn hơn thì dùng EmployeeJsonStream / EmployeeExternalSort.
+ */
+public final class EmployeeJsonParallel {
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    private static final byte[] OPEN = {'['}, CLOSE = {']'};
+
+    private EmployeeJsonParallel() {
+    }
+
+    public static List<Employee> read(Path file) throws IOException {
+        return read(file, ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public static List<Employee> read(Path file, ForkJoinPool pool, int chunkBytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("File quá 2 GB: " + file);
+            return read(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), pool, chunkBytes);
+        }
+    }
+
+    /** Parse mảng JSON nhân viên trong buf (từ position tới limit). */
+    public static List<Employee> read(ByteBuffer buf, ForkJoinPool pool, int chunkBytes) throws IOException {
+        if (chunkBytes < 1) throw new IllegalArgumentException("chunkBytes phải >= 1");
+        int[] chunks = scanChunks(buf, chunkBytes);
+        List<ForkJoinTask<List<Employee>>> tasks = new ArrayList<>(chunks.length / 2);
+        for (int c = 0; c < chunks.length; c += 2) {
+            int from = chunks[c], to = chunks[c + 1];
+            tasks.add(ForkJoinTask.adapt(() -> parseChunk(buf, from, to)));
+        }
+        try {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        int total = 0;
+        for (ForkJoinTask<List<Employee>> t : tasks) total += t.join().size();
+        List<Employee> out = new ArrayList<>(total);
+        for (ForkJoinTask<List<Employee>> t : tasks) out.addAll(t.join());
+        return out;
+    }
+
+    private static List<Employee> parseChunk(ByteBuffer buf, int from, int to) {
+        byte[] b = new byte[to - from];
+        buf.get(from, b);
+        List<Employee> list = new ArrayList<>();
+        InputStream in = new SequenceInputStream(Collections.enumeration(List.of(new ByteArrayInputStream(OPEN),
+                new ByteArrayInputStream(b), new ByteArrayInputStream(CLOSE))));
+        try {
+            EmployeeJsonStream.forEach(in, list::add);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return list;
+    }
+
+    /**
+     * Các chunk dạng [from0, to0, from1, to1, ...]: mỗi chunk bắt đầu ở '{' của 1 object và kết thúc sau '}'
+     * của object cuối cùng trong chunk (dấu phẩy giữa các object nằm trong chunk).
+     */
+    static int[] scanChunks(ByteBuffer buf, int chunkBytes) throws IOException {
+        int i = buf.position(), end = buf.limit();
+        // bỏ BOM UTF-8 (EF BB BF) như JsonReader
+        if (end - i >= 3 && buf.get(i) == (byte) 0xEF && buf.get(i + 1) == (byte) 0xBB && buf.get(i + 2) == (byte) 0xBF) i += 3;
+        while (i < end && isSpace(buf.get(i))) i++;
+        if (i == end || buf.get(i) != '[') throw new IOException("JSON phải bắt đầu bằng mảng '['");
+        int[] chunks = new int[16];
+        int n = 0, depth = 0, chunkStart = -1, lastEnd = -1;
+        boolean inString = false, escape = false, closed = false;
+        // ở depth 0: needComma = vừa xong 1 object, phải gặp ',' hoặc ']'; afterComma = vừa gặp ',', phải có object
+        boolean needComma = false, afterComma = false;
+        for (i++; i < end; i++) {
+            byte b = buf.get(i);
+            if (inString) {
+                if (escape) escape = false;
+                else if (b == '\\') escape = true;
+                else if (b == '"') inString = false;
+            } else if (b == '"') {
+                if (depth == 0) throw new IOException("Phần tử của mảng phải là object, tại byte " + i);
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                if (depth == 0) {
+                    if (b != '{') throw new IOException("Phần tử của mảng phải là object, tại byte " + i);
+                    if (needComma) throw new IOException("Thiếu ',' giữa các phần tử, tại byte " + i);
+                    afterComma = false;
+                    if (chunkStart < 0) chunkStart = i;
+                }
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) {
+                    if (b != ']') throw new IOException("'}' thừa tại byte " + i);
+                    if (afterComma) throw new IOException("',' thừa trước ']', tại byte " + i);
+                    closed = true;
+                    break;
+                }
+                if (--depth == 0) {
+                    needComma = true;
+                    lastEnd = i + 1;
+                    if (lastEnd - chunkStart >= chunkBytes) {
+                        if (n + 2 > chunks.length) chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                        chunks[n++] = chunkStart;
+                        chunks[n++] = lastEnd;
+                        chunkStart = -1;
+                    }
+                }
+            } else if (depth == 0 && b == ',') {
+                if (!needComma) throw new IOException("',' thừa tại byte " + i);
+                needComma = false;
+                afterComma = true;
+            } else if (depth == 0 && !isSpace(b)) {
+                throw new IOException("Phần tử của mảng phải là object, tại byte " + i);
+            }
+        }
+        if (!closed) throw new IOException("Mảng JSON chưa đóng (thiếu ']' hoặc chuỗi / object chưa kết thúc)");
+        for (int j = i + 1; j < end; j++) {
+            if (!isSpace(buf.get(j))) throw new IOException("Dữ liệu thừa sau mảng nhân viên tại byte " + j);
+        }
+        if (chunkStart >= 0) {
+            if (n + 2 > chunks.length) chunks = Arrays.copyOf(chunks, n + 2);
+            chunks[n++] = chunkStart;
+            chunks[n++] = lastEnd;
+        }
+        return Arrays.copyOf(chunks, n);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    // Demo: so tốc độ (MB/s) đọc file JSON nhân viên theo cách cũ của Main (readAllBytes + Gson.fromJson),
+    // EmployeeJsonStream và bản song song với 1..N luồng
+    public static void main(String[] args) throws IOException {
+        Path file;
+        boolean generated = args.length == 0 || !args[0].endsWith(".json");
+        if (generated) {
+            int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+            file = Files.createTempFile("employees", ".json");
+            try (var w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                new Gson().toJson(EmployeeSortBenchmark.randomEmployees(n, 42), w);
+            }
+        } else {
+            file = Path.of(args[0]);
+        }
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try {
+            double mb = Files.size(file) / 1e6;
+            System.out.printf("%s: %.1f MB%n%-30s %10s %8s%n", file, mb, "loader", "ms", "MB/s");
+            List<Employee> expected = null;
+            for (int rep = 0; rep < 2; rep++) {
+                long t0 = System.nanoTime();
+                String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                List<Employee> gson = new Gson().fromJson(json, new TypeToken<ArrayList<Employee>>() {}.getType());
+                report("Gson.fromJson (readAllBytes)", t0, mb);
+                expected = gson;
+
+                t0 = System.nanoTime();
+                List<Employee> streamed;
+                try (InputStream in = Files.newInputStream(file)) {
+                    streamed = EmployeeJsonStream.readAll(in);
+                }
+                report("EmployeeJsonStream", t0, mb);
+                check(streamed, expected, "EmployeeJsonStream");
+
+                for (int p = 1; ; p = Math.min(p * 2, maxThreads)) {
+                    ForkJoinPool pool = new ForkJoinPool(p);
+                    t0 = System.nanoTime();
+                    List<Employee> par = read(file, pool, DEFAULT_CHUNK_BYTES);
+                    report("EmployeeJsonParallel p=" + p, t0, mb);
+                    pool.shutdown();
+                    check(par, expected, "EmployeeJsonParallel");
+                    if (p >= maxThreads) break;
+                }
+            }
+        } finally {
+            if (generated) Files.deleteIfExists(file);
+        }
+    }
+
+    private static void report(String name, long t0, double mb) {
+        double ms = (System.nanoTime() - t0) / 1e6;
+        System.out.printf("%-30s %10.1f %8.1f%n", name, ms, mb / (ms / 1000));
+    }
+
+    private static void check(List<Employee> actual, List<Employee> expected, String name) {
+        boolean same = actual.size() == expected.size();
+        for (int i = 0; same && i < actual.size(); i++) {
+            same = actual.get(i).toString().equals(expected.get(i).toString())
+                    && actual.get(i).getEmployeeCode().equals(expected.get(i).getEmployeeCode());
+        }
+        if (!same) throw new IllegalStateException(name + " produced a wrong result");
+    }
+}
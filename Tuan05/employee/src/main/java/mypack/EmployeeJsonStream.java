@@ -0,0 +1,85 @@
+package mypack;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Đọc mảng JSON nhân viên theo kiểu streaming bằng JsonReader của Gson: mỗi object được dựng thành Employee
+ * rồi đưa ngay cho Consumer, không giữ cả file (hay cây JSON) trong bộ nhớ
+ * -> bộ nhớ chỉ phụ thuộc vào việc Consumer giữ lại bao nhiêu bản ghi, không phụ thuộc kích thước file.
+ * Định dạng: [ { "employeeCode": ..., "firstName": ..., "lastName": ..., "salary": ... }, ... ],
+ * trường lạ được bỏ qua, trường thiếu / null giữ giá trị mặc định như khi Gson.fromJson.
+ */
+public final class EmployeeJsonStream {
+    private EmployeeJsonStream() {
+    }
+
+    /** Đọc từng nhân viên trong mảng JSON và gọi action; trả số bản ghi đã đọc. Không đóng in. */
+    public static long forEach(InputStream in, Consumer<? super Employee> action) throws IOException {
+        return forEach(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), action);
+    }
+
+    public static long forEach(Reader reader, Consumer<? super Employee> action) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        long count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            action.accept(readEmployee(in));
+            count++;
+        }
+        in.endArray();
+        if (in.peek() != JsonToken.END_DOCUMENT) {
+            throw new IOException("Dữ liệu thừa sau mảng nhân viên tại " + in.getPath());
+        }
+        return count;
+    }
+
+    /** Đọc cả mảng vào danh sách (chỉ dùng khi dữ liệu vừa bộ nhớ). */
+    public static List<Employee> readAll(InputStream in) throws IOException {
+        List<Employee> list = new ArrayList<>();
+        forEach(in, list::add);
+        return list;
+    }
+
+    /** Đọc 1 object nhân viên tại vị trí hiện tại của reader. */
+    public static Employee readEmployee(JsonReader in) throws IOException {
+        Employee e = new Employee();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "employeeCode" -> e.setEmployeeCode(in.nextString());
+                case "firstName" -> e.setFirstName(in.nextString());
+                case "lastName" -> e.setLastName(in.nextString());
+                case "salary" -> e.setSalary(in.nextDouble());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return e;
+    }
+
+    /** Ghi 1 object nhân viên (cùng tên trường với khi đọc); mở / đóng mảng do người gọi. */
+    public static void writeEmployee(JsonWriter out, Employee e) throws IOException {
+        out.beginObject();
+        out.name("employeeCode").value(e.getEmployeeCode());
+        out.name("firstName").value(e.getFirstName());
+        out.name("lastName").value(e.getLastName());
+        out.name("salary").value(e.getSalary());
+        out.endObject();
+    }
+}
@@ -0,0 +1,211 @@
+package mypack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sort Employee theo khóa số nguyên thay vì gọi Comparator cho từng cặp:
+ * - Mỗi nhân viên được rút 1 khóa long "giữ thứ tự" (so sánh không dấu của khóa khớp với Comparator),
+ *   cùng chỉ số gốc. Cặp (khóa, chỉ số) được sort bằng LSD radix 8 bit, song song trên ForkJoinPool,
+ *   rồi hoán vị danh sách đúng 1 lần.
+ * - Lương: bit của double được biến đổi để thứ tự không dấu = Double.compare (giảm dần thì đảo bit),
+ *   khóa chính xác nên không cần so sánh thêm; radix LSD ổn định nên giữ thứ tự cũ khi lương bằng nhau.
+ * - Mã: tiền tố của mã, mỗi ký tự quy về chữ thường như String.CASE_INSENSITIVE_ORDER: 8 ký tự x 8 bit
+ *   nếu mọi ký tự (đã quy đổi) đều <= 0xFF (mã kiểu "E0000001"), ngược lại 4 ký tự x 16 bit.
+ *   Khóa chỉ là tiền tố nên các nhóm trùng khóa được sort tiếp bằng Comparator (thường rất nhỏ).
+ * - Byte nào mọi khóa đều giống nhau (ví dụ tiền tố "E000") thì bỏ qua lượt radix đó.
+ */
+public final class EmployeeKeySort {
+    // Dưới mức này chia chunk song song chỉ tốn thêm chi phí
+    private static final int PARALLEL_MIN = 1 << 16;
+
+    private EmployeeKeySort() {
+    }
+
+    /* ==================== Khóa ==================== */
+    /** Khóa không dấu cùng thứ tự với Double.compare (giảm dần nếu descending). */
+    public static long salaryKey(double salary, boolean descending) {
+        long bits = Double.doubleToLongBits(salary);
+        // số dương: bật bit dấu; số âm: đảo hết các bit (để -1 < -0.5 theo thứ tự không dấu)
+        long key = bits ^ ((bits >> 63) | Long.MIN_VALUE);
+        return descending ? ~key : key;
+    }
+
+    /**
+     * Tiền tố của mã, không phân biệt hoa thường; mã ngắn hơn được đệm 0 (đứng trước).
+     * latin1 = true: 8 ký tự x 8 bit, chỉ dùng khi mọi mã đều thỏa isLatin1Prefix; false: 4 ký tự x 16 bit.
+     */
+    public static long codePrefixKey(String code, boolean latin1) {
+        int chars = latin1 ? 8 : 4, bits = latin1 ? 8 : 16;
+        long key = 0;
+        for (int i = 0; i < chars; i++) {
+            char c = i < code.length() ? foldCase(code.charAt(i)) : 0;
+            key = (key << bits) | c;
+        }
+        return key;
+    }
+
+    /** 8 ký tự đầu của mã (đã quy đổi hoa thường) đều vừa 1 byte. */
+    public static boolean isLatin1Prefix(String code) {
+        for (int i = 0, len = Math.min(8, code.length()); i < len; i++) {
+            if (foldCase(code.charAt(i)) > 0xFF) return false;
+        }
+        return true;
+    }
+
+    // Cùng cách quy đổi với String.CASE_INSENSITIVE_ORDER
+    static char foldCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /* ==================== Sort danh sách ==================== */
+    public static void sortBySalary(List<Employee> list, boolean descending) {
+        sortBySalary(list, descending, ForkJoinPool.commonPool());
+    }
+
+    public static void sortBySalary(List<Employee> list, boolean descending, ForkJoinPool pool) {
+        sortByKey(list, e -> salaryKey(e.getSalary(), descending), null, pool);
+    }
+
+    public static void sortByCode(List<Employee> list) {
+        sortByCode(list, ForkJoinPool.commonPool());
+    }
+
+    public static void sortByCode(List<Employee> list, ForkJoinPool pool) {
+        boolean packed = allLatin1Prefix(list);
+        sortByKey(list, e -> codePrefixKey(e.getEmployeeCode(), packed), EmployeeComparators.BY_CODE_ASC, pool);
+    }
+
+    // Mọi mã trong list đều dùng được khóa 8 x 8 bit
+    static boolean allLatin1Prefix(List<Employee> list) {
+        for (Employee e : list) {
+            if (!isLatin1Prefix(e.getEmployeeCode())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sort tại chỗ theo khóa (so sánh không dấu), ổn định.
+     * tieBreak: Comparator đầy đủ cho các phần tử trùng khóa; null nếu khóa đã quyết định hết thứ tự.
+     * pool: null để chạy tuần tự.
+     */
+    public static void sortByKey(List<Employee> list, ToLongFunction<? super Employee> key,
+                                 Comparator<? super Employee> tieBreak, ForkJoinPool pool) {
+        int n = list.size();
+        if (n < 2) return;
+        Employee[] src = list.toArray(new Employee[0]);
+        long[] keys = new long[n];
+        int chunks = chunks(n, pool);
+        parallelFor(pool, chunks, c -> {
+            for (int i = chunkStart(n, c, chunks), end = chunkStart(n, c + 1, chunks); i < end; i++) {
+                keys[i] = key.applyAsLong(src[i]);
+            }
+        });
+        int[] order = sortedOrder(keys, pool);
+
+        Employee[] out = new Employee[n];
+        for (int i = 0; i < n; i++) out[i] = src[order[i]];
+        if (tieBreak != null) {
+            // keys đã được sort cùng với order: nhóm trùng khóa nằm liền nhau
+            for (int i = 0; i < n; ) {
+                int j = i + 1;
+                while (j < n && keys[j] == keys[i]) j++;
+                if (j - i > 1) Arrays.sort(out, i, j, tieBreak); // TimSort, ổn định
+                i = j;
+            }
+        }
+        ListIterator<Employee> it = list.listIterator();
+        for (Employee e : out) {
+            it.next();
+            it.set(e);
+        }
+    }
+
+    /* ==================== Radix LSD song song ==================== */
+    /**
+     * Sort keys tại chỗ (không dấu, ổn định) và trả hoán vị: phần tử thứ i sau sort là phần tử order[i] ban đầu.
+     * Mỗi lượt 8 bit: mỗi chunk đếm histogram riêng, cộng dồn theo (bucket, chunk) để mỗi chunk
+     * có vùng ghi riêng, rồi các chunk rải phần tử song song mà không cần đồng bộ.
+     */
+    static int[] sortedOrder(long[] keys, ForkJoinPool pool) {
+        int n = keys.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        if (n < 2) return order;
+        long diff = 0, k0 = keys[0];
+        for (long k : keys) diff |= k ^ k0;
+
+        int chunks = chunks(n, pool);
+        int[][] counts = new int[chunks][256];
+        long[] srcK = keys, dstK = null;
+        int[] srcI = order, dstI = null;
+        for (int shift = 0; shift < 64; shift += 8) {
+            if (((diff >>> shift) & 0xFF) == 0) continue;
+            if (dstK == null) {
+                dstK = new long[n];
+                dstI = new int[n];
+            }
+            final long[] sk = srcK, dk = dstK;
+            final int[] si = srcI, di = dstI;
+            final int sh = shift;
+            parallelFor(pool, chunks, c -> {
+                int[] cnt = counts[c];
+                Arrays.fill(cnt, 0);
+                for (int i = chunkStart(n, c, chunks), end = chunkStart(n, c + 1, chunks); i < end; i++) {
+                    cnt[(int) (sk[i] >>> sh) & 0xFF]++;
+                }
+            });
+            int sum = 0;
+            for (int b = 0; b < 256; b++) {
+                for (int c = 0; c < chunks; c++) {
+                    int t = counts[c][b];
+                    counts[c][b] = sum;
+                    sum += t;
+                }
+            }
+            parallelFor(pool, chunks, c -> {
+                int[] off = counts[c];
+                for (int i = chunkStart(n, c, chunks), end = chunkStart(n, c + 1, chunks); i < end; i++) {
+                    long k = sk[i];
+                    int p = off[(int) (k >>> sh) & 0xFF]++;
+                    dk[p] = k;
+                    di[p] = si[i];
+                }
+            });
+            srcK = dk;
+            dstK = sk;
+            srcI = di;
+            dstI = si;
+        }
+        if (srcK != keys) System.arraycopy(srcK, 0, keys, 0, n);
+        return srcI;
+    }
+
+    private static int chunks(int n, ForkJoinPool pool) {
+        if (pool == null || n < PARALLEL_MIN) return 1;
+        return Math.min(pool.getParallelism() * 4, n / (PARALLEL_MIN / 4));
+    }
+
+    private static int chunkStart(int n, int c, int chunks) {
+        return (int) ((long) n * c / chunks);
+    }
+
+    private static void parallelFor(ForkJoinPool pool, int chunks, IntConsumer body) {
+        if (chunks == 1) {
+            body.accept(0);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            tasks.add(ForkJoinTask.adapt(() -> body.accept(chunk)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+}
@@ -0,0 +1,108 @@
+package mypack;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Đo thời gian sort danh sách nhân viên sinh ngẫu nhiên theo từng thứ tự của EmployeeComparators:
+ * List.sort (TimSort + Comparator), các Sorter trong Sorters (bubble / insertion chỉ khi n nhỏ, vì O(n^2))
+ * và EmployeeKeySort (tuần tự / song song). Mỗi cách sort bản sao của danh sách gốc,
+ * lấy thời gian tốt nhất trong 'reps' lần, kết quả được so với List.sort.
+ *
+ * Chạy: EmployeeSortBenchmark [n=1000000] [reps=3]
+ */
+public class EmployeeSortBenchmark {
+    // Trên mức này bubble / insertion (O(n^2)) mất quá lâu
+    private static final int QUADRATIC_MAX = 20_000;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int reps = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        List<Employee> data = randomEmployees(n, 42);
+
+        Map<String, Consumer<List<Employee>>> bySalary = sorters(EmployeeComparators.BY_SALARY_DESC, n);
+        bySalary.put("EmployeeKeySort sequential", l -> EmployeeKeySort.sortBySalary(l, true, null));
+        bySalary.put("EmployeeKeySort parallel", l -> EmployeeKeySort.sortBySalary(l, true));
+
+        Map<String, Consumer<List<Employee>>> byCode = sorters(EmployeeComparators.BY_CODE_ASC, n);
+        byCode.put("EmployeeKeySort sequential", l -> EmployeeKeySort.sortByCode(l, null));
+        byCode.put("EmployeeKeySort parallel", EmployeeKeySort::sortByCode);
+
+        System.out.printf("n=%,d, commonPool parallelism=%d%n", n, ForkJoinPool.commonPool().getParallelism());
+        run("BY_SALARY_DESC", EmployeeComparators.BY_SALARY_DESC, bySalary, data, reps);
+        run("BY_CODE_ASC", EmployeeComparators.BY_CODE_ASC, byCode, data, reps);
+        run("BY_FIRSTNAME_THEN_LASTNAME_ASC", EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC,
+                sorters(EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC, n), data, reps);
+    }
+
+    // List.sort làm mốc, rồi các Sorter đã đăng ký (bỏ các sorter O(n^2) khi n lớn)
+    static Map<String, Consumer<List<Employee>>> sorters(Comparator<Employee> cmp, int n) {
+        Map<String, Consumer<List<Employee>>> m = new LinkedHashMap<>();
+        m.put("List.sort", l -> l.sort(cmp));
+        for (String name : Sorters.names()) {
+            if (n > QUADRATIC_MAX && (name.equals("bubble") || name.equals("insertion"))) continue;
+            Sorter s = Sorters.get(name);
+            m.put("Sorters " + name, l -> s.sort(l, cmp));
+        }
+        return m;
+    }
+
+    /** Kết quả được so với cách đầu tiên (List.sort) theo cmp, nên sort không ổn định (quick) vẫn được chấp nhận. */
+    static void run(String title, Comparator<Employee> cmp, Map<String, Consumer<List<Employee>>> algorithms,
+                    List<Employee> data, int reps) {
+        System.out.printf("%n%s%n%-30s %10s %8s%n", title, "algorithm", "ms", "speedup");
+        List<Employee> expected = null;
+        double base = 0;
+        for (Map.Entry<String, Consumer<List<Employee>>> alg : algorithms.entrySet()) {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < reps; r++) {
+                List<Employee> l = new ArrayList<>(data);
+                long t0 = System.nanoTime();
+                alg.getValue().accept(l);
+                best = Math.min(best, System.nanoTime() - t0);
+                if (expected == null) expected = l;
+                else if (!sameOrder(l, expected, cmp)) throw new IllegalStateException(alg.getKey() + " produced a wrong result");
+            }
+            double ms = best / 1e6;
+            if (base == 0) base = ms;
+            System.out.printf("%-30s %10.1f %8.2f%n", alg.getKey(), ms, base / ms);
+        }
+    }
+
+    private static boolean sameOrder(List<Employee> a, List<Employee> b, Comparator<Employee> cmp) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (cmp.compare(a.get(i), b.get(i)) != 0) return false;
+        }
+        return true;
+    }
+
+    /* ==================== Dữ liệu ==================== */
+    private static final String[] FIRST_NAMES = {"An", "Bình", "Chi", "Dũng", "Giang", "Hà", "Hùng", "Lan",
+            "Linh", "Minh", "Nam", "Ngọc", "Phong", "Quân", "Thảo", "Trang", "Tuấn", "Vy"};
+    private static final String[] LAST_NAMES = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan",
+            "Vũ", "Võ", "Đặng", "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý"};
+
+    /**
+     * n nhân viên ngẫu nhiên (cố định theo seed): mã "E0000001".. xáo trộn, chữ 'E' đôi khi viết thường,
+     * tên / họ lấy từ danh sách có sẵn (nhiều trùng), lương lệch (phân phối mũ) làm tròn 2 chữ số.
+     */
+    static List<Employee> randomEmployees(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Employee> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String code = String.format("%s%07d", rnd.nextInt(10) == 0 ? "e" : "E", i + 1);
+            double salary = Math.round((8_000_000 - Math.log(1 - rnd.nextDouble()) * 7_000_000) * 100) / 100.0;
+            list.add(new Employee(code, FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[rnd.nextInt(LAST_NAMES.length)], salary));
+        }
+        Collections.shuffle(list, rnd);
+        return list;
+    }
+}
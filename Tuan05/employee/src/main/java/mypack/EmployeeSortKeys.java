@@ -0,0 +1,89 @@
+package mypack;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Sort kiểu Schwartzian transform: mỗi nhân viên được mã hóa 1 lần thành khóa byte[] sao cho
+ * Arrays.compareUnsigned của khóa cho cùng kết quả với EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC,
+ * sau đó chỉ sort các khóa (không gọi getter / quy đổi hoa thường trong mỗi lần so sánh) rồi sắp lại danh sách.
+ * - Chuỗi: mỗi ký tự quy đổi như String.CASE_INSENSITIVE_ORDER (toUpperCase rồi toLowerCase), ghi 2 byte
+ *   big-endian. Ký tự NUL được ghi 00 00 01 để dấu phân cách 00 00 00 giữa tên và họ nhỏ hơn mọi ký tự
+ *   -> tên ngắn hơn (là tiền tố) đứng trước như CASE_INSENSITIVE_ORDER.
+ */
+public final class EmployeeSortKeys {
+    private static final byte[] SEPARATOR = {0, 0, 0};
+
+    private EmployeeSortKeys() {
+    }
+
+    /* ==================== Khóa ==================== */
+    /** Khóa cho BY_FIRSTNAME_THEN_LASTNAME_ASC: tên, 00 00 00, họ. */
+    public static byte[] nameKey(Employee e) {
+        String first = e.getFirstName(), last = e.getLastName();
+        byte[] buf = new byte[3 * (first.length() + last.length()) + SEPARATOR.length];
+        int p = putFolded(buf, 0, first);
+        System.arraycopy(SEPARATOR, 0, buf, p, SEPARATOR.length);
+        p = putFolded(buf, p + SEPARATOR.length, last);
+        return Arrays.copyOf(buf, p);
+    }
+
+    // Ghi s (đã quy đổi hoa thường) vào buf từ vị trí p, trả vị trí kế tiếp
+    private static int putFolded(byte[] buf, int p, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = EmployeeKeySort.foldCase(s.charAt(i));
+            if (c == 0) {
+                buf[p++] = 0;
+                buf[p++] = 0;
+                buf[p++] = 1;
+            } else {
+                buf[p++] = (byte) (c >>> 8);
+                buf[p++] = (byte) c;
+            }
+        }
+        return p;
+    }
+
+    /** cmp là một Comparator có sẵn trong EmployeeComparators (có khóa tính trước). */
+    static boolean supports(Comparator<?> cmp) {
+        return cmp == EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC
+                || cmp == EmployeeComparators.BY_CODE_ASC || cmp == EmployeeComparators.BY_SALARY_DESC;
+    }
+
+    /* ==================== Sort ==================== */
+    private record Keyed<T>(byte[] key, T value) {
+    }
+
+    /** Sort tại chỗ theo khóa byte[] (so sánh không dấu), ổn định. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> void sort(List<T> list, Function<? super T, byte[]> key) {
+        if (list == null || list.size() < 2) return;
+        Keyed<T>[] a = new Keyed[list.size()];
+        int i = 0;
+        for (T e : list) a[i++] = new Keyed<>(key.apply(e), e);
+        // parallelSort là merge sort ổn định, tự chạy tuần tự khi mảng nhỏ hoặc pool chỉ có 1 luồng
+        Arrays.parallelSort(a, (x, y) -> Arrays.compareUnsigned(x.key, y.key));
+        Object[] out = new Object[a.length];
+        for (i = 0; i < a.length; i++) out[i] = a[i].value;
+        MergeSort.writeBack(list, (T[]) out);
+    }
+
+    /**
+     * Sorter "keyed" cho các Comparator có sẵn trong EmployeeComparators (khi đó phần tử chắc chắn là Employee):
+     * tên dùng khóa byte[]; mã và lương vừa 1 khóa long nên dùng EmployeeKeySort (so sánh byte[] 8 byte
+     * còn chậm hơn so sánh double trực tiếp). Comparator khác thì sort bằng merge.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void keyedSort(List<T> list, Comparator<? super T> cmp) {
+        if (cmp == EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC) {
+            sort((List<Employee>) list, EmployeeSortKeys::nameKey);
+        } else if (cmp == EmployeeComparators.BY_CODE_ASC) {
+            EmployeeKeySort.sortByCode((List<Employee>) list);
+        } else if (cmp == EmployeeComparators.BY_SALARY_DESC) {
+            EmployeeKeySort.sortBySalary((List<Employee>) list, true);
+        } else {
+            MergeSort.sort(list, cmp);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package mypack;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bảng nhân viên lưu theo cột thay vì List<Employee> (mỗi Employee = 1 object + 3 String):
+ * - salaries: double[];
+ * - tên / họ: int[] id trỏ vào 1 bảng chuỗi dùng chung (mã hóa từ điển, tên trùng nhau chỉ lưu 1 lần);
+ * - mã: các byte UTF-8 nối liền trong 1 mảng byte, codeOffsets[i]..codeOffsets[i + 1] là mã của dòng i.
+ * Sort / lọc / top-k làm trực tiếp trên cột và trả về mảng chỉ số dòng; Employee chỉ được tạo khi gọi get / rows.
+ * Các thứ tự sort trùng với EmployeeComparators và ổn định (trùng khóa thì dòng thêm trước đứng trước).
+ */
+public final class EmployeeTable {
+    private int size;
+    private double[] salaries = new double[16];
+    private int[] firstNames = new int[16], lastNames = new int[16];
+    private byte[] codes = new byte[64];
+    private int[] codeOffsets = new int[17];
+
+    // Bảng chuỗi tên / họ
+    private final List<String> pool = new ArrayList<>();
+    private final Map<String, Integer> poolIds = new HashMap<>();
+
+    public static EmployeeTable of(Iterable<Employee> employees) {
+        EmployeeTable t = new EmployeeTable();
+        for (Employee e : employees) t.add(e);
+        return t;
+    }
+
+    /** Đọc streaming mảng JSON nhân viên thẳng vào bảng (không dựng List<Employee>). */
+    public static EmployeeTable readJson(InputStream in) throws IOException {
+        EmployeeTable t = new EmployeeTable();
+        EmployeeJsonStream.forEach(in, t::add);
+        return t;
+    }
+
+    /* ==================== Thêm dòng ==================== */
+    public void add(Employee e) {
+        add(e.getEmployeeCode(), e.getFirstName(), e.getLastName(), e.getSalary());
+    }
+
+    public void add(String code, String firstName, String lastName, double salary) {
+        if (size == salaries.length) {
+            int cap = size * 2;
+            salaries = Arrays.copyOf(salaries, cap);
+            firstNames = Arrays.copyOf(firstNames, cap);
+            lastNames = Arrays.copyOf(lastNames, cap);
+            codeOffsets = Arrays.copyOf(codeOffsets, cap + 1);
+        }
+        byte[] c = code.getBytes(StandardCharsets.UTF_8);
+        int end = codeOffsets[size];
+        if (end + c.length > codes.length) codes = Arrays.copyOf(codes, Math.max(codes.length * 2, end + c.length));
+        System.arraycopy(c, 0, codes, end, c.length);
+        codeOffsets[size + 1] = end + c.length;
+        salaries[size] = salary;
+        firstNames[size] = intern(firstName);
+        lastNames[size] = intern(lastName);
+        size++;
+    }
+
+    private int intern(String s) {
+        Integer id = poolIds.get(s);
+        if (id == null) {
+            id = pool.size();
+            pool.add(s);
+            poolIds.put(s, id);
+        }
+        return id;
+    }
+
+    /* ==================== Đọc cột ==================== */
+    public int size() {
+        return size;
+    }
+
+    public double salary(int row) {
+        return salaries[checkRow(row)];
+    }
+
+    public String firstName(int row) {
+        return pool.get(firstNames[checkRow(row)]);
+    }
+
+    public String lastName(int row) {
+        return pool.get(lastNames[checkRow(row)]);
+    }
+
+    public String code(int row) {
+        checkRow(row);
+        return new String(codes, codeOffsets[row], codeOffsets[row + 1] - codeOffsets[row], StandardCharsets.UTF_8);
+    }
+
+    /** Số chuỗi khác nhau trong bảng tên / họ. */
+    public int distinctNames() {
+        return pool.size();
+    }
+
+    /** Tạo Employee (bản sao, sửa không ảnh hưởng bảng) cho 1 dòng. */
+    public Employee get(int row) {
+        return new Employee(code(row), firstName(row), lastName(row), salary(row));
+    }
+
+    /** Tạo Employee cho các dòng theo thứ tự trong rows. */
+    public List<Employee> rows(int[] rows) {
+        List<Employee> list = new ArrayList<>(rows.length);
+        for (int r : rows) list.add(get(r));
+        return list;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Dòng " + row + ", số dòng " + size);
+        return row;
+    }
+
+    /* ==================== Sort (trả chỉ số dòng) ==================== */
+    /** Thứ tự của BY_SALARY_DESC (descending = true) hoặc lương tăng dần. */
+    public int[] sortBySalary(boolean descending) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = EmployeeKeySort.salaryKey(salaries[i], descending);
+        return EmployeeKeySort.sortedOrder(keys, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Thứ tự của BY_FIRSTNAME_THEN_LASTNAME_ASC: chỉ sort bảng chuỗi (nhỏ) để lấy hạng của từng id,
+     * mỗi dòng có khóa chính xác (hạng tên << 32 | hạng họ) rồi radix sort, không so sánh chuỗi theo dòng.
+     */
+    public int[] sortByName() {
+        int[] rank = poolRanks();
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = ((long) rank[firstNames[i]] << 32) | rank[lastNames[i]];
+        return EmployeeKeySort.sortedOrder(keys, ForkJoinPool.commonPool());
+    }
+
+    // rank[id]: thứ tự của chuỗi id theo CASE_INSENSITIVE_ORDER (chuỗi chỉ khác hoa thường có cùng hạng)
+    private int[] poolRanks() {
+        Integer[] ids = new Integer[pool.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, (x, y) -> String.CASE_INSENSITIVE_ORDER.compare(pool.get(x), pool.get(y)));
+        int[] rank = new int[ids.length];
+        for (int i = 1; i < ids.length; i++) {
+            boolean same = String.CASE_INSENSITIVE_ORDER.compare(pool.get(ids[i - 1]), pool.get(ids[i])) == 0;
+            rank[ids[i]] = same ? rank[ids[i - 1]] : i;
+        }
+        return rank;
+    }
+
+    /**
+     * Thứ tự của BY_CODE_ASC: khóa tiền tố 8 byte đọc thẳng từ vùng byte khi mọi mã đều ASCII ở 8 byte đầu
+     * (khi đó quy đổi hoa thường chỉ là A-Z -> a-z), ngược lại dùng EmployeeKeySort.codePrefixKey trên chuỗi.
+     * Nhóm trùng tiền tố được sort tiếp bằng CASE_INSENSITIVE_ORDER trên chuỗi giải mã.
+     */
+    public int[] sortByCode() {
+        long[] keys = new long[size];
+        boolean ascii = true;
+        for (int i = 0; i < size && ascii; i++) {
+            for (int p = codeOffsets[i], end = Math.min(p + 8, codeOffsets[i + 1]); p < end; p++) {
+                if (codes[p] < 0) {
+                    ascii = false;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (ascii) {
+                long k = 0;
+                int p = codeOffsets[i], end = codeOffsets[i + 1];
+                for (int j = 0; j < 8; j++, p++) {
+                    int b = p < end ? codes[p] : 0;
+                    if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+                    k = (k << 8) | b;
+                }
+                keys[i] = k;
+            } else {
+                keys[i] = EmployeeKeySort.codePrefixKey(code(i), false);
+            }
+        }
+        int[] order = EmployeeKeySort.sortedOrder(keys, ForkJoinPool.commonPool());
+        for (int i = 0; i < size; ) {
+            int j = i + 1;
+            while (j < size && keys[j] == keys[i]) j++;
+            if (j - i > 1) {
+                Integer[] group = new Integer[j - i];
+                for (int g = 0; g < group.length; g++) group[g] = order[i + g];
+                Arrays.sort(group, (x, y) -> String.CASE_INSENSITIVE_ORDER.compare(code(x), code(y)));
+                for (int g = 0; g < group.length; g++) order[i + g] = group[g];
+            }
+            i = j;
+        }
+        return order;
+    }
+
+    /* ==================== Lọc / top-k ==================== */
+    /** Các dòng có min <= lương <= max, theo thứ tự dòng. */
+    public int[] filterSalaryBetween(double min, double max) {
+        int[] out = new int[16];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            double s = salaries[i];
+            if (s >= min && s <= max) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = i;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Các dòng có tên (không phân biệt hoa thường) bằng firstName: so sánh id, không so sánh chuỗi theo dòng. */
+    public int[] filterFirstName(String firstName) {
+        boolean[] match = new boolean[pool.size()];
+        for (int id = 0; id < match.length; id++) match[id] = pool.get(id).equalsIgnoreCase(firstName);
+        int[] out = new int[16];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (match[firstNames[i]]) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = i;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * k dòng lương cao nhất, giảm dần (trùng lương thì dòng trước đứng trước, như BY_SALARY_DESC ổn định).
+     * Heap min k phần tử trên mảng int chỉ số dòng: O(n log k), không tạo object theo dòng.
+     */
+    public int[] topBySalary(int k) {
+        k = Math.min(k, size);
+        if (k <= 0) return new int[0];
+        int[] heap = new int[k]; // heap[0] là dòng "kém nhất" trong k dòng đang giữ
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (n < k) {
+                heap[n] = i;
+                siftUp(heap, n++);
+            } else if (worse(heap[0], i)) {
+                heap[0] = i;
+                siftDown(heap, 0, n);
+            }
+        }
+        // lấy dần phần tử kém nhất ra cuối mảng -> kết quả từ tốt đến kém
+        for (int end = n - 1; end > 0; end--) {
+            int t = heap[0];
+            heap[0] = heap[end];
+            heap[end] = t;
+            siftDown(heap, 0, end);
+        }
+        return heap;
+    }
+
+    // dòng a xếp sau dòng b theo lương giảm dần (trùng lương: dòng lớn hơn xếp sau)
+    private boolean worse(int a, int b) {
+        int c = Double.compare(salaries[a], salaries[b]);
+        return c != 0 ? c < 0 : a > b;
+    }
+
+    private void siftUp(int[] h, int i) {
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!worse(h[i], h[p])) break;
+            int t = h[i];
+            h[i] = h[p];
+            h[p] = t;
+            i = p;
+        }
+    }
+
+    private void siftDown(int[] h, int i, int n) {
+        while (true) {
+            int l = 2 * i + 1, m = i;
+            if (l < n && worse(h[l], h[m])) m = l;
+            if (l + 1 < n && worse(h[l + 1], h[m])) m = l + 1;
+            if (m == i) return;
+            int t = h[i];
+            h[i] = h[m];
+            h[m] = t;
+            i = m;
+        }
+    }
+
+    // Demo: so sánh bộ nhớ List<Employee> và EmployeeTable, rồi chạy vài truy vấn
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Employee> list = EmployeeSortBenchmark.randomEmployees(n, 42);
+        long before = usedMemory();
+        EmployeeTable table = of(list);
+        long tableBytes = usedMemory() - before;
+        // bản sao sâu để đo List<Employee> (danh sách sinh ngẫu nhiên dùng chung chuỗi tên)
+        before = usedMemory();
+        List<Employee> copy = new ArrayList<>(n);
+        for (Employee e : list) copy.add(new Employee(copyOf(e.getEmployeeCode()), copyOf(e.getFirstName()),
+                copyOf(e.getLastName()), e.getSalary()));
+        long listBytes = usedMemory() - before;
+        System.out.printf("n=%,d: List<Employee> ~%,d B, EmployeeTable ~%,d B (%d tên khác nhau)%n",
+                n, listBytes, tableBytes, table.distinctNames());
+
+        long t0 = System.nanoTime();
+        int[] bySalary = table.sortBySalary(true);
+        long t1 = System.nanoTime();
+        int[] byName = table.sortByName();
+        long t2 = System.nanoTime();
+        int[] byCode = table.sortByCode();
+        long t3 = System.nanoTime();
+        int[] top = table.topBySalary(5);
+        long t4 = System.nanoTime();
+        System.out.printf("sortBySalary %.1f ms, sortByName %.1f ms, sortByCode %.1f ms, topBySalary(5) %.1f ms%n",
+                (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6, (t4 - t3) / 1e6);
+        System.out.println("Top 5 lương:");
+        table.rows(top).forEach(e -> System.out.println(" - " + e));
+        System.out.println("Đầu theo tên: " + table.get(byName[0]) + "; đầu theo mã: " + table.get(byCode[0])
+                + "; thấp nhất: " + table.get(bySalary[n - 1]));
+        System.out.printf("Lương trong [1e7, 1.1e7]: %,d dòng; tên 'an': %,d dòng; (%d bản sao)%n",
+                table.filterSalaryBetween(1e7, 1.1e7).length, table.filterFirstName("an").length, copy.size());
+    }
+
+    // chuỗi mới có mảng byte riêng như khi đọc từ JSON (new String(String) dùng chung mảng với bản gốc)
+    private static String copyOf(String s) {
+        return new String(s.toCharArray());
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,33 @@
+package mypack;
+import java.util.Comparator;
+import java.util.List;
+
+public final class InsertionSort {
+    private InsertionSort() {
+    }
+
+    /**
+     * Insertion Sort generic (ổn định), O(n + số nghịch thế): nhanh với danh sách nhỏ hoặc gần như đã sắp.
+     * Sort trên mảng sao chép rồi ghi lại để tránh list.get/set trong vòng lặp.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> list, Comparator<? super T> cmp) {
+        if (list == null || list.size() < 2) return;
+        T[] a = (T[]) list.toArray();
+        sort(a, 0, a.length, cmp);
+        MergeSort.writeBack(list, a);
+    }
+
+    /** Sort a[lo..hi). */
+    static <T> void sort(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        for (int i = lo + 1; i < hi; i++) {
+            T key = a[i];
+            int j = i - 1;
+            while (j >= lo && cmp.compare(a[j], key) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+}
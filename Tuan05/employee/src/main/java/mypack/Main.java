@@ -1,43 +1,53 @@
 package mypack;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
+    /**
+     * Chạy: Main [--sorter=auto|bubble|insertion|merge|quick|parallel|keyed] [--top=3]
+     */
     public static void main(String[] args) throws IOException {
+        String sorterName = Sorters.DEFAULT;
+        int top = 3;
+        for (String arg : args) {
+            if (arg.startsWith("--sorter=")) sorterName = arg.substring("--sorter=".length());
+            else if (arg.startsWith("--top=")) top = Integer.parseInt(arg.substring("--top=".length()));
+            else throw new IllegalArgumentException("Tham số không hợp lệ: " + arg);
+        }
+        Sorter sorter = Sorters.get(sorterName);
+
         // Đọc employees.json từ resources (classpath)
         try (InputStream in = Main.class.getResourceAsStream("/employees.json")) {
             if (in == null) {
                 throw new IOException("Không tìm thấy employees.json trong resources!");
             }
-            String json = new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-
-            Type listType = new TypeToken<ArrayList<Employee>>(){}.getType();
-            List<Employee> employees = new Gson().fromJson(json, listType);
+            // Đọc streaming từng bản ghi, không nạp cả file thành String
+            List<Employee> employees = EmployeeJsonStream.readAll(in);
 
             System.out.println("== Raw ==");
             print(employees);
 
-            // Bubble Sort
-            List<Employee> byCode = new ArrayList<>(employees);
-            BubbleSortFlag.sort(byCode, EmployeeComparators.BY_CODE_ASC);
-            System.out.println("\n== Bubble: By employeeCode ASC ==");
-            print(byCode);
-
-            List<Employee> byName = new ArrayList<>(employees);
-            BubbleSortFlag.sort(byName, EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC);
-            System.out.println("\n== Bubble: By firstName ASC, then lastName ASC ==");
-            print(byName);
-
-            List<Employee> bySalaryDesc = new ArrayList<>(employees);
-            BubbleSortFlag.sort(bySalaryDesc, EmployeeComparators.BY_SALARY_DESC);
-            System.out.println("\n== Bubble: By salary DESC ==");
-            print(bySalaryDesc);
+            // Mỗi thứ tự chỉ sort 1 lần (hoán vị được giữ trong chỉ mục), không chép danh sách
+            EmployeeIndex index = new EmployeeIndex(employees, sorter);
+            System.out.println("\n== " + sorterName + ": By employeeCode ASC ==");
+            print(index.sorted(EmployeeComparators.BY_CODE_ASC));
+
+            System.out.println("\n== " + sorterName + ": By firstName ASC, then lastName ASC ==");
+            print(index.sorted(EmployeeComparators.BY_FIRSTNAME_THEN_LASTNAME_ASC));
+
+            System.out.println("\n== " + sorterName + ": By salary DESC ==");
+            print(index.sorted(EmployeeComparators.BY_SALARY_DESC));
+
+            // Truy vấn khoảng dùng lại các hoán vị ở trên
+            System.out.println("\n== Index: salary in [1800, 2100] ==");
+            print(index.salaryBetween(1800, 2100));
+            System.out.println("\n== Index: firstName starts with 'b' ==");
+            print(index.firstNameStartsWith("b"));
+
+            // Chỉ cần k người lương cao nhất: heap k phần tử, không sort cả danh sách
+            System.out.println("\n== TopK: Top " + top + " by salary ==");
+            print(TopK.topK(employees, top, EmployeeComparators.BY_SALARY_DESC));
         }
     }
 
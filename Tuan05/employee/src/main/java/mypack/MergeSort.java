@@ -0,0 +1,51 @@
+package mypack;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+public final class MergeSort {
+    // Đoạn nhỏ hơn mức này dùng insertion sort
+    private static final int INSERTION_CUTOFF = 32;
+
+    private MergeSort() {
+    }
+
+    /**
+     * Merge Sort generic top-down (ổn định), O(n log n), cần thêm 1 mảng phụ n phần tử.
+     * Hai nửa đã nối tiếp đúng thứ tự thì bỏ qua bước trộn -> O(n) với danh sách đã sắp.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> list, Comparator<? super T> cmp) {
+        if (list == null || list.size() < 2) return;
+        T[] a = (T[]) list.toArray();
+        sort(a, a.clone(), 0, a.length, cmp);
+        writeBack(list, a);
+    }
+
+    // Sort a[lo..hi), aux là bản sao cùng nội dung (được dùng làm nguồn khi trộn)
+    private static <T> void sort(T[] a, T[] aux, int lo, int hi, Comparator<? super T> cmp) {
+        if (hi - lo <= INSERTION_CUTOFF) {
+            InsertionSort.sort(a, lo, hi, cmp);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        sort(a, aux, lo, mid, cmp);
+        sort(a, aux, mid, hi, cmp);
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, lo, aux, lo, hi - lo);
+        int i = lo, j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (i < mid && (j >= hi || cmp.compare(aux[i], aux[j]) <= 0)) a[k] = aux[i++];
+            else a[k] = aux[j++];
+        }
+    }
+
+    // Ghi mảng đã sort trở lại danh sách (1 lượt duyệt, dùng được cho cả LinkedList)
+    static <T> void writeBack(List<T> list, T[] a) {
+        ListIterator<T> it = list.listIterator();
+        for (T e : a) {
+            it.next();
+            it.set(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package mypack;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public final class QuickSort {
+    // Đoạn nhỏ hơn mức này dùng insertion sort
+    private static final int INSERTION_CUTOFF = 16;
+
+    private QuickSort() {
+    }
+
+    /**
+     * Quick Sort generic (KHÔNG ổn định): pivot median-of-three, chia Hoare (dừng cả khi bằng pivot nên
+     * nhiều khóa trùng vẫn chia đều), đệ quy nửa nhỏ và lặp nửa lớn -> ngăn xếp O(log n).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> list, Comparator<? super T> cmp) {
+        if (list == null || list.size() < 2) return;
+        T[] a = (T[]) list.toArray();
+        sort(a, 0, a.length - 1, cmp);
+        MergeSort.writeBack(list, a);
+    }
+
+    private static <T> void sort(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        while (hi - lo >= INSERTION_CUTOFF) {
+            int p = partition(a, lo, hi, cmp);
+            if (p - lo < hi - p) {
+                sort(a, lo, p - 1, cmp);
+                lo = p;
+            } else {
+                sort(a, p, hi, cmp);
+                hi = p - 1;
+            }
+        }
+        InsertionSort.sort(a, lo, hi + 1, cmp);
+    }
+
+    /**
+     * Chia a[lo..hi] (hi - lo >= 2) quanh pivot median-of-three theo Hoare, trả p với lo < p <= hi:
+     * mọi phần tử trong a[lo..p) <= pivot <= mọi phần tử trong a[p..hi].
+     */
+    static <T> int partition(T[] a, int lo, int hi, Comparator<? super T> cmp) {
+        int mid = (lo + hi) >>> 1;
+        if (cmp.compare(a[mid], a[lo]) < 0) swap(a, mid, lo);
+        if (cmp.compare(a[hi], a[lo]) < 0) swap(a, hi, lo);
+        if (cmp.compare(a[hi], a[mid]) < 0) swap(a, hi, mid);
+        T pivot = a[mid];
+        int i = lo, j = hi;
+        while (i <= j) {
+            while (cmp.compare(a[i], pivot) < 0) i++;
+            while (cmp.compare(a[j], pivot) > 0) j--;
+            if (i <= j) swap(a, i++, j--);
+        }
+        return i;
+    }
+
+    /**
+     * Quickselect: sắp lại a[lo..hi] để a[k] là phần tử đứng ở vị trí k khi sort,
+     * a[lo..k) <= a[k] <= a(k..hi]. Trung bình O(n); chia quá 2 log2(n) lần (pivot xấu liên tục)
+     * thì sort hẳn đoạn còn lại để chặn trường hợp O(n^2).
+     */
+    static <T> void select(T[] a, int lo, int hi, int k, Comparator<? super T> cmp) {
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(hi - lo + 1));
+        while (hi - lo >= INSERTION_CUTOFF) {
+            if (budget-- == 0) {
+                Arrays.sort(a, lo, hi + 1, cmp);
+                return;
+            }
+            int p = partition(a, lo, hi, cmp);
+            if (k < p) hi = p - 1;
+            else lo = p;
+        }
+        InsertionSort.sort(a, lo, hi + 1, cmp);
+    }
+
+    private static <T> void swap(T[] a, int i, int j) {
+        T tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+}
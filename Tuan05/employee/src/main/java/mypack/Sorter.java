@@ -0,0 +1,13 @@
+package mypack;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Thuật toán sort danh sách theo Comparator (sort tại chỗ).
+ * Cài đặt bằng method reference tới các lớp sort tĩnh, ví dụ Sorter s = MergeSort::sort;
+ * các cài đặt có sẵn được đăng ký theo tên trong Sorters.
+ */
+@FunctionalInterface
+public interface Sorter {
+    <T> void sort(List<T> list, Comparator<? super T> cmp);
+}
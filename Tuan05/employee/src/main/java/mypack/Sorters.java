@@ -0,0 +1,90 @@
+package mypack;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Danh sách các Sorter có sẵn theo tên (dùng cho cờ --sorter= của Main):
+ * bubble, insertion, merge, quick, parallel, keyed (khóa byte[] tính trước, xem EmployeeSortKeys)
+ * và auto (mặc định).
+ * auto chọn theo kích thước và mức "gần như đã sắp" (số cặp kề nhau bị ngược, đếm trong 1 lượt):
+ * - không cặp nào ngược: giữ nguyên;
+ * - danh sách nhỏ: insertion;
+ * - Comparator có sẵn trong EmployeeComparators: keyed (khóa tính 1 lần thay vì mỗi lần so sánh);
+ * - danh sách lớn và có nhiều luồng: parallel;
+ * - còn lại: merge (bỏ qua bước trộn khi 2 nửa đã đúng thứ tự nên gần O(n) với dữ liệu gần như đã sắp).
+ * Không dùng insertion cho danh sách lớn dù ít cặp ngược: 1 cặp ngược vẫn có thể ứng với O(n^2) nghịch thế.
+ * Mọi lựa chọn của auto đều ổn định (quick không ổn định nên chỉ dùng khi chọn tường minh).
+ */
+public final class Sorters {
+    public static final String DEFAULT = "auto";
+    // Tới mức này insertion sort vẫn nhanh hơn merge sort
+    static final int INSERTION_MAX = 32;
+    // Từ mức này Arrays.parallelSort mới có lợi (khi pool có > 1 luồng)
+    static final int PARALLEL_MIN = 1 << 16;
+
+    private static final Map<String, Sorter> REGISTRY = new LinkedHashMap<>();
+
+    static {
+        REGISTRY.put("bubble", BubbleSortFlag::sort);
+        REGISTRY.put("insertion", InsertionSort::sort);
+        REGISTRY.put("merge", MergeSort::sort);
+        REGISTRY.put("quick", QuickSort::sort);
+        REGISTRY.put("parallel", Sorters::parallelSort);
+        REGISTRY.put("keyed", EmployeeSortKeys::keyedSort);
+        REGISTRY.put(DEFAULT, Sorters::autoSort);
+    }
+
+    private Sorters() {
+    }
+
+    public static Sorter get(String name) {
+        Sorter s = REGISTRY.get(name);
+        if (s == null) {
+            throw new IllegalArgumentException("Không có sorter '" + name + "', chọn một trong " + names());
+        }
+        return s;
+    }
+
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(REGISTRY.keySet());
+    }
+
+    /** Tên sorter mà auto sẽ dùng cho danh sách này ("none" nếu đã sắp sẵn). */
+    public static <T> String choose(List<T> list, Comparator<? super T> cmp) {
+        int n = list.size();
+        if (n < 2) return "none";
+        long descents = 0;
+        T prev = null;
+        boolean first = true;
+        for (T e : list) {
+            if (!first && cmp.compare(prev, e) > 0) descents++;
+            prev = e;
+            first = false;
+        }
+        if (descents == 0) return "none";
+        if (n <= INSERTION_MAX) return "insertion";
+        if (EmployeeSortKeys.supports(cmp)) return "keyed";
+        if (n >= PARALLEL_MIN && ForkJoinPool.getCommonPoolParallelism() > 1) return "parallel";
+        return "merge";
+    }
+
+    private static <T> void autoSort(List<T> list, Comparator<? super T> cmp) {
+        String name = choose(list, cmp);
+        if (!name.equals("none")) get(name).sort(list, cmp);
+    }
+
+    // Arrays.parallelSort: merge sort song song trên commonPool, ổn định
+    @SuppressWarnings("unchecked")
+    private static <T> void parallelSort(List<T> list, Comparator<? super T> cmp) {
+        if (list == null || list.size() < 2) return;
+        T[] a = (T[]) list.toArray();
+        Arrays.parallelSort(a, cmp);
+        MergeSort.writeBack(list, a);
+    }
+}
@@ -0,0 +1,164 @@
+package mypack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Truy vấn k phần tử đầu tiên theo Comparator mà không sort cả danh sách
+ * (ví dụ topK(employees, 100, BY_SALARY_DESC) = 100 người lương cao nhất):
+ * - topK: heap giữ k phần tử tốt nhất, O(n log k), không sửa danh sách; kết quả giống k phần tử đầu
+ *   của sort ổn định (trùng khóa thì phần tử đứng trước được ưu tiên).
+ * - parallelTopK: chia danh sách thành chunk, mỗi chunk lấy topK song song, rồi lấy topK của các kết quả
+ *   (nối theo thứ tự chunk nên vẫn ổn định).
+ * - nthElement / partialSort: quickselect trên phân hoạch của QuickSort, sắp lại danh sách tại chỗ, O(n)
+ *   trung bình (+ O(k log k) để sort k phần tử đầu); không ổn định.
+ */
+public final class TopK {
+    // Chunk nhỏ hơn mức này không đáng chạy song song
+    private static final int PARALLEL_MIN = 1 << 15;
+
+    private TopK() {
+    }
+
+    /* ==================== Heap giới hạn k ==================== */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> topK(List<T> list, int k, Comparator<? super T> cmp) {
+        T[] a = (T[]) list.toArray();
+        return topK(a, 0, a.length, k, cmp);
+    }
+
+    // k phần tử tốt nhất của a[from..to), đã sort
+    private static <T> List<T> topK(T[] a, int from, int to, int k, Comparator<? super T> cmp) {
+        k = Math.min(k, to - from);
+        if (k <= 0) return new ArrayList<>();
+        // heap chỉ số, heap[0] là phần tử "kém nhất" đang giữ; trùng khóa thì chỉ số lớn hơn là kém hơn
+        int[] heap = new int[k];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            if (n < k) {
+                heap[n] = i;
+                siftUp(a, heap, n++, cmp);
+            } else if (cmp.compare(a[i], a[heap[0]]) < 0) {
+                heap[0] = i;
+                siftDown(a, heap, 0, n, cmp);
+            }
+        }
+        for (int end = n - 1; end > 0; end--) {
+            int t = heap[0];
+            heap[0] = heap[end];
+            heap[end] = t;
+            siftDown(a, heap, 0, end, cmp);
+        }
+        List<T> out = new ArrayList<>(k);
+        for (int i : heap) out.add(a[i]);
+        return out;
+    }
+
+    private static <T> boolean worse(T[] a, int x, int y, Comparator<? super T> cmp) {
+        int c = cmp.compare(a[x], a[y]);
+        return c != 0 ? c > 0 : x > y;
+    }
+
+    private static <T> void siftUp(T[] a, int[] h, int i, Comparator<? super T> cmp) {
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!worse(a, h[i], h[p], cmp)) break;
+            int t = h[i];
+            h[i] = h[p];
+            h[p] = t;
+            i = p;
+        }
+    }
+
+    private static <T> void siftDown(T[] a, int[] h, int i, int n, Comparator<? super T> cmp) {
+        while (true) {
+            int l = 2 * i + 1, m = i;
+            if (l < n && worse(a, h[l], h[m], cmp)) m = l;
+            if (l + 1 < n && worse(a, h[l + 1], h[m], cmp)) m = l + 1;
+            if (m == i) return;
+            int t = h[i];
+            h[i] = h[m];
+            h[m] = t;
+            i = m;
+        }
+    }
+
+    /* ==================== Song song ==================== */
+    public static <T> List<T> parallelTopK(List<T> list, int k, Comparator<? super T> cmp) {
+        return parallelTopK(list, k, cmp, ForkJoinPool.commonPool());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> parallelTopK(List<T> list, int k, Comparator<? super T> cmp, ForkJoinPool pool) {
+        if (k <= 0) return new ArrayList<>();
+        T[] a = (T[]) list.toArray();
+        int n = a.length;
+        int chunks = Math.min(pool.getParallelism() * 4, n / PARALLEL_MIN);
+        if (chunks <= 1) return topK(a, 0, n, k, cmp);
+        List<ForkJoinTask<List<T>>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) n * c / chunks), to = (int) ((long) n * (c + 1) / chunks);
+            tasks.add(ForkJoinTask.adapt(() -> topK(a, from, to, k, cmp)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        List<T> candidates = new ArrayList<>((int) Math.min((long) chunks * k, n));
+        for (ForkJoinTask<List<T>> t : tasks) candidates.addAll(t.join());
+        return topK(candidates, k, cmp);
+    }
+
+    /* ==================== Quickselect ==================== */
+    /**
+     * Sắp lại list để list.get(n) là phần tử đứng ở vị trí n khi sort, các phần tử trước nó không lớn hơn,
+     * các phần tử sau không nhỏ hơn; trả phần tử đó.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T nthElement(List<T> list, int n, Comparator<? super T> cmp) {
+        if (n < 0 || n >= list.size()) throw new IndexOutOfBoundsException("n = " + n + ", size = " + list.size());
+        T[] a = (T[]) list.toArray();
+        QuickSort.select(a, 0, a.length - 1, n, cmp);
+        MergeSort.writeBack(list, a);
+        return a[n];
+    }
+
+    /** Sắp lại list để k phần tử đầu là k phần tử nhỏ nhất, đã sort; phần còn lại không theo thứ tự. */
+    @SuppressWarnings("unchecked")
+    public static <T> void partialSort(List<T> list, int k, Comparator<? super T> cmp) {
+        k = Math.min(k, list.size());
+        if (k <= 0) return;
+        T[] a = (T[]) list.toArray();
+        if (k < a.length) QuickSort.select(a, 0, a.length - 1, k - 1, cmp);
+        Arrays.sort(a, 0, k, cmp);
+        MergeSort.writeBack(list, a);
+    }
+
+    // Demo: top 100 lương trên danh sách ngẫu nhiên, so với sort cả danh sách
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int k = Math.min(n, args.length > 1 ? Integer.parseInt(args[1]) : 100);
+        List<Employee> data = EmployeeSortBenchmark.randomEmployees(n, 42);
+        Comparator<Employee> cmp = EmployeeComparators.BY_SALARY_DESC;
+        for (int rep = 0; rep < 3; rep++) {
+            long t0 = System.nanoTime();
+            List<Employee> sorted = new ArrayList<>(data);
+            sorted.sort(cmp);
+            List<Employee> expected = sorted.subList(0, k);
+            long t1 = System.nanoTime();
+            List<Employee> heap = topK(data, k, cmp);
+            long t2 = System.nanoTime();
+            List<Employee> par = parallelTopK(data, k, cmp);
+            long t3 = System.nanoTime();
+            List<Employee> partial = new ArrayList<>(data);
+            partialSort(partial, k, cmp);
+            long t4 = System.nanoTime();
+            if (!heap.equals(expected) || !par.equals(expected)) throw new IllegalStateException("topK produced a wrong result");
+            for (int i = 0; i < k; i++) {
+                if (cmp.compare(partial.get(i), expected.get(i)) != 0) throw new IllegalStateException("partialSort produced a wrong result");
+            }
+            System.out.printf("n=%,d k=%d: full sort %.1f ms, topK %.1f ms, parallelTopK %.1f ms, partialSort %.1f ms%n",
+                    n, k, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6, (t4 - t3) / 1e6);
+        }
+    }
+}
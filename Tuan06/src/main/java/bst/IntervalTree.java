@@ -0,0 +1,283 @@
+package bst;
+
+import java.util.*;
+
+/**
+ * Cây khoảng (interval tree) dựa trên BST: khóa là cặp (lo, hi), sắp theo lo rồi hi.
+ * - Mỗi nút giữ size như BST_Tree và thêm max = đầu mút hi lớn nhất trong cây con.
+ * - Cân bằng kiểu left-leaning red-black (LLRB) để dữ liệu chèn theo thứ tự thời gian
+ *   (rất hay gặp với lịch đặt chỗ) không làm cây suy biến thành danh sách.
+ * - overlapping(lo, hi) / stabbing(p) trả về Iterator duyệt lười (không gom ra List):
+ *   chỉ đi xuống cây con trái khi max của nó còn chạm tới lo, và dừng nhánh phải khi
+ *   x.lo > hi. Chi phí O(log n + k) trong trường hợp điển hình, xấu nhất O(k·log n).
+ *
+ * Khoảng là đóng [lo, hi]; cùng một (lo, hi) thì put ghi đè value (giống BST_Tree.put).
+ */
+public class IntervalTree<K extends Comparable<K>, V> {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    /** Một khoảng trong cây (chỉ đọc). */
+    public interface Interval<K, V> {
+        K lo();
+        K hi();
+        V value();
+    }
+
+    // Bản chụp bất biến trả cho người gọi: delete chép (lo, hi, val) của successor vào nút cũ,
+    // nên không được trả chính Node (khoảng đang giữ có thể tự đổi sau remove)
+    private record Entry<K, V>(K lo, K hi, V value) implements Interval<K, V> {
+        @Override public String toString() { return "[" + lo + ", " + hi + "] : " + value; }
+    }
+
+    private static final class Node<K,V> {
+        K lo, hi, max; V val; Node<K,V> left, right; int size; boolean color;
+        Node(K lo, K hi, V v) { this.lo = lo; this.hi = hi; max = hi; val = v; size = 1; color = RED; }
+    }
+
+    private Node<K,V> root;
+
+    // ---------- cơ bản (size, put, get...)  ----------
+    public int size() { return size(root); }
+    private int size(Node<K,V> x) { return x == null ? 0 : x.size; }
+    public boolean isEmpty() { return root == null; }
+
+    private boolean isRed(Node<K,V> x) { return x != null && x.color == RED; }
+
+    /** So sánh 2 khoảng theo (lo, hi). */
+    private int compare(K lo, K hi, Node<K,V> x) {
+        int cmp = lo.compareTo(x.lo);
+        return cmp != 0 ? cmp : hi.compareTo(x.hi);
+    }
+
+    private static <K extends Comparable<K>> K maxOf(K a, K b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    // Cập nhật size + max của x từ 2 con (dùng sau mọi thay đổi cấu trúc)
+    private void fix(Node<K,V> x) {
+        x.size = 1 + size(x.left) + size(x.right);
+        K m = x.hi;
+        if (x.left != null) m = maxOf(m, x.left.max);
+        if (x.right != null) m = maxOf(m, x.right.max);
+        x.max = m;
+    }
+
+    public void put(K lo, K hi, V val) {
+        checkInterval(lo, hi);
+        root = put(root, lo, hi, val);
+        root.color = BLACK;
+    }
+    private Node<K,V> put(Node<K,V> x, K lo, K hi, V val) {
+        if (x == null) return new Node<>(lo, hi, val);
+        int cmp = compare(lo, hi, x);
+        if (cmp < 0) x.left  = put(x.left, lo, hi, val);
+        else if (cmp > 0) x.right = put(x.right, lo, hi, val);
+        else x.val = val;
+        return balance(x);
+    }
+
+    public V get(K lo, K hi) {
+        checkInterval(lo, hi);
+        Node<K,V> x = root;
+        while (x != null) {
+            int cmp = compare(lo, hi, x);
+            if (cmp < 0) x = x.left;
+            else if (cmp > 0) x = x.right;
+            else return x.val;
+        }
+        return null;
+    }
+    public boolean contains(K lo, K hi) { return get(lo, hi) != null; }
+
+    /** Đầu mút hi lớn nhất trong cả cây. */
+    public K maxEnd() { if (root == null) throw new NoSuchElementException("empty"); return root.max; }
+
+    // --------------- remove (LLRB của Sedgewick) ---------------
+    public V remove(K lo, K hi) {
+        checkInterval(lo, hi);
+        V old = get(lo, hi);
+        if (old == null) return null;
+        if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+        root = delete(root, lo, hi);
+        if (root != null) root.color = BLACK;
+        return old;
+    }
+    private Node<K,V> delete(Node<K,V> x, K lo, K hi) {
+        if (compare(lo, hi, x) < 0) {
+            if (!isRed(x.left) && !isRed(x.left.left)) x = moveRedLeft(x);
+            x.left = delete(x.left, lo, hi);
+        } else {
+            if (isRed(x.left)) x = rotateRight(x);
+            if (compare(lo, hi, x) == 0 && x.right == null) return null;
+            if (!isRed(x.right) && !isRed(x.right.left)) x = moveRedRight(x);
+            if (compare(lo, hi, x) == 0) {
+                // thay x bằng successor (min của cây con phải), giống BST_Tree.delete
+                Node<K,V> m = min(x.right);
+                x.lo = m.lo; x.hi = m.hi; x.val = m.val;
+                x.right = deleteMin(x.right);
+            } else {
+                x.right = delete(x.right, lo, hi);
+            }
+        }
+        return balance(x);
+    }
+
+    private Node<K,V> min(Node<K,V> x) { while (x.left != null) x = x.left; return x; }
+
+    private Node<K,V> deleteMin(Node<K,V> x) {
+        if (x.left == null) return null;
+        if (!isRed(x.left) && !isRed(x.left.left)) x = moveRedLeft(x);
+        x.left = deleteMin(x.left);
+        return balance(x);
+    }
+
+    // --------------- các phép quay, giữ đúng size/max ---------------
+    private Node<K,V> rotateLeft(Node<K,V> h) {
+        Node<K,V> x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        fix(h);
+        fix(x);
+        return x;
+    }
+    private Node<K,V> rotateRight(Node<K,V> h) {
+        Node<K,V> x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        fix(h);
+        fix(x);
+        return x;
+    }
+    private void flipColors(Node<K,V> h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+    private Node<K,V> moveRedLeft(Node<K,V> h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+    private Node<K,V> moveRedRight(Node<K,V> h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+    private Node<K,V> balance(Node<K,V> h) {
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+        fix(h);
+        return h;
+    }
+
+    // --------------- truy vấn ---------------
+    /** Các khoảng giao với [lo, hi] (tức x.lo <= hi && x.hi >= lo), theo thứ tự (lo, hi). */
+    public Iterator<Interval<K,V>> overlapping(K lo, K hi) {
+        checkInterval(lo, hi);
+        return new OverlapIterator(lo, hi);
+    }
+
+    /** Các khoảng chứa điểm p. */
+    public Iterator<Interval<K,V>> stabbing(K point) {
+        if (point == null) throw new IllegalArgumentException("point == null");
+        return new OverlapIterator(point, point);
+    }
+
+    /**
+     * Duyệt in-order có cắt tỉa, dùng stack tường minh nên không đệ quy;
+     * mỗi kết quả là 1 Entry nhỏ chụp (lo, hi, value) tại thời điểm duyệt.
+     */
+    private final class OverlapIterator implements Iterator<Interval<K,V>> {
+        private final K qlo, qhi;
+        private final ArrayDeque<Node<K,V>> stack = new ArrayDeque<>();
+        private Node<K,V> next;
+
+        OverlapIterator(K qlo, K qhi) {
+            this.qlo = qlo;
+            this.qhi = qhi;
+            pushLeft(root);
+            advance();
+        }
+
+        // Đi xuống nhánh trái, bỏ qua cây con mà max < qlo (không thể giao)
+        private void pushLeft(Node<K,V> x) {
+            while (x != null && x.max.compareTo(qlo) >= 0) {
+                stack.push(x);
+                x = x.left;
+            }
+        }
+
+        private void advance() {
+            next = null;
+            while (!stack.isEmpty()) {
+                Node<K,V> x = stack.pop();
+                // mọi nút còn lại đều có lo >= x.lo > qhi -> hết
+                if (x.lo.compareTo(qhi) > 0) { stack.clear(); return; }
+                pushLeft(x.right);
+                if (x.hi.compareTo(qlo) >= 0) { next = x; return; }
+            }
+        }
+
+        @Override public boolean hasNext() { return next != null; }
+
+        @Override public Interval<K,V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Interval<K,V> r = new Entry<>(next.lo, next.hi, next.val);
+            advance();
+            return r;
+        }
+    }
+
+    private void checkInterval(K lo, K hi) {
+        if (lo == null || hi == null) throw new IllegalArgumentException("lo/hi == null");
+        if (lo.compareTo(hi) > 0) throw new IllegalArgumentException("lo > hi: [" + lo + ", " + hi + "]");
+    }
+
+    // --------------- In cây ASCII ---------------
+    public void printPretty() { printPretty(root, "", false); }
+    private void printPretty(Node<K,V> x, String prefix, boolean isLeft) {
+        if (x == null) return;
+        if (x.right != null) printPretty(x.right, prefix + (isLeft ? "│   " : "    "), false);
+        System.out.println(prefix + (isLeft ? "└── " : "┌── ") + "[" + x.lo + ", " + x.hi + "] max=" + x.max);
+        if (x.left != null) printPretty(x.left, prefix + (isLeft ? "    " : "│   "), true);
+    }
+
+    // Demo
+    public static void main(String[] args) {
+        IntervalTree<Integer, String> t = new IntervalTree<>();
+        int[][] slots = { {8, 10}, {9, 12}, {13, 15}, {14, 18}, {1, 3}, {5, 8}, {16, 20}, {21, 23} };
+        for (int[] s : slots) t.put(s[0], s[1], "res-" + s[0] + "-" + s[1]);
+        t.printPretty();
+
+        System.out.println("\nOverlapping [9, 14]:");
+        for (Iterator<Interval<Integer, String>> it = t.overlapping(9, 14); it.hasNext(); ) {
+            System.out.println(" - " + it.next());
+        }
+
+        System.out.println("\nStabbing 17:");
+        for (Iterator<Interval<Integer, String>> it = t.stabbing(17); it.hasNext(); ) {
+            System.out.println(" - " + it.next());
+        }
+
+        t.remove(14, 18);
+        System.out.println("\nSau khi xóa [14, 18], stabbing 17:");
+        for (Iterator<Interval<Integer, String>> it = t.stabbing(17); it.hasNext(); ) {
+            System.out.println(" - " + it.next());
+        }
+    }
+}
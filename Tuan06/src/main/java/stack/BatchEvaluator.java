@@ -0,0 +1,346 @@
+package stack;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static stack.CompiledExpression.*;
+
+/**
+ * Tính 1 biểu thức đã biên dịch trên cả cột dữ liệu (mỗi biến 1 mảng nguyên thủy).
+ * - Thay vì chạy bộ thông dịch 1 lần cho mỗi dòng, ta chạy từng lệnh RPN trên cả 1 khối
+ *   BLOCK dòng: mỗi ô stack là 1 đoạn mảng, ADD/MUL... thành vòng lặp phẳng trên mảng
+ *   (JIT tự vector hóa được), chi phí switch chia đều cho BLOCK dòng.
+ * - VAR không copy: ô stack trỏ thẳng vào cột đầu vào + offset; chỉ kết quả trung gian
+ *   mới ghi ra vùng nhớ tạm (maxStack x BLOCK phần tử, cấp 1 lần cho mỗi lần gọi / mỗi task);
+ *   biến tạm STORE/LOAD dùng các hàng từ tempBase trở đi của cùng vùng này.
+ * - Bản có ForkJoinPool chia dãy dòng thành các đoạn >= PARALLEL_GRAIN cho các luồng.
+ *
+ * columns[i] là cột của biến thứ i (theo CompiledExpression.variableName(i)),
+ * mỗi cột dài ít nhất out.length.
+ */
+public final class BatchEvaluator {
+    static final int BLOCK = 1024;
+    static final int PARALLEL_GRAIN = 64 * BLOCK;
+
+    private BatchEvaluator() {
+    }
+
+    /* ==================== API ==================== */
+    public static void evalInt(CompiledExpression e, int[][] columns, int[] out) {
+        check(e, NumericMode.INT, columns.length);
+        for (int[] col : columns) checkColumn(col.length, out.length);
+        new IntRunner(e, columns, out).run(0, out.length);
+    }
+
+    public static void evalInt(CompiledExpression e, int[][] columns, int[] out, ForkJoinPool pool) {
+        check(e, NumericMode.INT, columns.length);
+        for (int[] col : columns) checkColumn(col.length, out.length);
+        pool.invoke(new Split(new IntRunner(e, columns, out), 0, out.length));
+    }
+
+    public static void evalLong(CompiledExpression e, long[][] columns, long[] out) {
+        check(e, NumericMode.LONG, columns.length);
+        for (long[] col : columns) checkColumn(col.length, out.length);
+        new LongRunner(e, columns, out).run(0, out.length);
+    }
+
+    public static void evalLong(CompiledExpression e, long[][] columns, long[] out, ForkJoinPool pool) {
+        check(e, NumericMode.LONG, columns.length);
+        for (long[] col : columns) checkColumn(col.length, out.length);
+        pool.invoke(new Split(new LongRunner(e, columns, out), 0, out.length));
+    }
+
+    public static void evalDouble(CompiledExpression e, double[][] columns, double[] out) {
+        check(e, NumericMode.DOUBLE, columns.length);
+        for (double[] col : columns) checkColumn(col.length, out.length);
+        new DoubleRunner(e, columns, out).run(0, out.length);
+    }
+
+    public static void evalDouble(CompiledExpression e, double[][] columns, double[] out, ForkJoinPool pool) {
+        check(e, NumericMode.DOUBLE, columns.length);
+        for (double[] col : columns) checkColumn(col.length, out.length);
+        pool.invoke(new Split(new DoubleRunner(e, columns, out), 0, out.length));
+    }
+
+    private static void check(CompiledExpression e, NumericMode mode, int columnCount) {
+        if (e.mode() != mode) {
+            throw new IllegalStateException("Expression compiled as " + e.mode() + ", not " + mode);
+        }
+        if (columnCount < e.variableCount()) {
+            throw new IllegalArgumentException("Expected " + e.variableCount() + " columns, got " + columnCount);
+        }
+    }
+
+    private static void checkColumn(int length, int rows) {
+        if (length < rows) throw new IllegalArgumentException("Column shorter than output: " + length + " < " + rows);
+    }
+
+    /* ==================== chia việc cho ForkJoinPool ==================== */
+    private interface Runner {
+        void run(int from, int to);
+    }
+
+    private static final class Split extends RecursiveAction {
+        private final Runner runner;
+        private final int from, to;
+
+        Split(Runner runner, int from, int to) {
+            this.runner = runner;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                runner.run(from, to);
+                return;
+            }
+            // cắt tại bội số của BLOCK để các khối bên trong luôn đầy
+            int mid = from + ((to - from) / 2 / BLOCK) * BLOCK;
+            invokeAll(new Split(runner, from, mid), new Split(runner, mid, to));
+        }
+    }
+
+    /* ==================== INT ==================== */
+    private static final class IntRunner implements Runner {
+        private final int[] code;
+        private final long[] consts;
+        private final int maxStack, tempBase;
+        private final int[][] columns;
+        private final int[] out;
+
+        IntRunner(CompiledExpression e, int[][] columns, int[] out) {
+            this.code = e.code();
+            this.consts = e.longConsts();
+            this.maxStack = e.maxStack();
+            this.tempBase = e.tempBase();
+            this.columns = columns;
+            this.out = out;
+        }
+
+        // Mỗi lời gọi run có vùng tạm riêng nên các task song song không đụng nhau
+        @Override
+        public void run(int from, int to) {
+            int[][] tmp = new int[maxStack][BLOCK];
+            int[][] src = new int[maxStack][];
+            int[] off = new int[maxStack];
+            for (int base = from; base < to; base += BLOCK) {
+                int n = Math.min(BLOCK, to - base);
+                int sp = -1;
+                for (int pc = 0; pc < code.length; pc++) {
+                    int op = code[pc];
+                    switch (op) {
+                        case CONST -> {
+                            sp++;
+                            Arrays.fill(tmp[sp], 0, n, (int) consts[code[++pc]]);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                        case VAR -> { sp++; src[sp] = columns[code[++pc]]; off[sp] = base; }
+                        case LOAD -> { sp++; src[sp] = tmp[tempBase + code[++pc]]; off[sp] = 0; }
+                        case STORE -> System.arraycopy(src[sp], off[sp], tmp[tempBase + code[++pc]], 0, n);
+                        case NEG, NEG_EXACT -> {
+                            unary(op, src[sp], off[sp], tmp[sp], n);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                        default -> {
+                            sp--;
+                            binary(op, src[sp], off[sp], src[sp + 1], off[sp + 1], tmp[sp], n);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                    }
+                }
+                System.arraycopy(src[0], off[0], out, base, n);
+            }
+        }
+
+        private static void unary(int op, int[] a, int ao, int[] d, int n) {
+            if (op == NEG) for (int i = 0; i < n; i++) d[i] = -a[ao + i];
+            else for (int i = 0; i < n; i++) d[i] = Math.negateExact(a[ao + i]);
+        }
+
+        private static void binary(int op, int[] a, int ao, int[] b, int bo, int[] d, int n) {
+            switch (op) {
+                case ADD -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] + b[bo + i]; }
+                case SUB -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] - b[bo + i]; }
+                case MUL -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] * b[bo + i]; }
+                case DIV -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] / nonZero(b[bo + i]); }
+                case POW -> { for (int i = 0; i < n; i++) d[i] = Main.applyOp(a[ao + i], b[bo + i], '^'); }
+                case ADD_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.addExact(a[ao + i], b[bo + i]); }
+                case SUB_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.subtractExact(a[ao + i], b[bo + i]); }
+                case MUL_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.multiplyExact(a[ao + i], b[bo + i]); }
+                case DIV_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.divideExact(a[ao + i], nonZero(b[bo + i])); }
+                case POW_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.toIntExact(powExact(a[ao + i], b[bo + i])); }
+                default -> throw new IllegalStateException("Bad opcode " + op);
+            }
+        }
+    }
+
+    /* ==================== LONG ==================== */
+    private static final class LongRunner implements Runner {
+        private final int[] code;
+        private final long[] consts;
+        private final int maxStack, tempBase;
+        private final long[][] columns;
+        private final long[] out;
+
+        LongRunner(CompiledExpression e, long[][] columns, long[] out) {
+            this.code = e.code();
+            this.consts = e.longConsts();
+            this.maxStack = e.maxStack();
+            this.tempBase = e.tempBase();
+            this.columns = columns;
+            this.out = out;
+        }
+
+        @Override
+        public void run(int from, int to) {
+            long[][] tmp = new long[maxStack][BLOCK];
+            long[][] src = new long[maxStack][];
+            int[] off = new int[maxStack];
+            for (int base = from; base < to; base += BLOCK) {
+                int n = Math.min(BLOCK, to - base);
+                int sp = -1;
+                for (int pc = 0; pc < code.length; pc++) {
+                    int op = code[pc];
+                    switch (op) {
+                        case CONST -> {
+                            sp++;
+                            Arrays.fill(tmp[sp], 0, n, consts[code[++pc]]);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                        case VAR -> { sp++; src[sp] = columns[code[++pc]]; off[sp] = base; }
+                        case LOAD -> { sp++; src[sp] = tmp[tempBase + code[++pc]]; off[sp] = 0; }
+                        case STORE -> System.arraycopy(src[sp], off[sp], tmp[tempBase + code[++pc]], 0, n);
+                        case NEG, NEG_EXACT -> {
+                            unary(op, src[sp], off[sp], tmp[sp], n);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                        default -> {
+                            sp--;
+                            binary(op, src[sp], off[sp], src[sp + 1], off[sp + 1], tmp[sp], n);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                    }
+                }
+                System.arraycopy(src[0], off[0], out, base, n);
+            }
+        }
+
+        private static void unary(int op, long[] a, int ao, long[] d, int n) {
+            if (op == NEG) for (int i = 0; i < n; i++) d[i] = -a[ao + i];
+            else for (int i = 0; i < n; i++) d[i] = Math.negateExact(a[ao + i]);
+        }
+
+        private static void binary(int op, long[] a, int ao, long[] b, int bo, long[] d, int n) {
+            switch (op) {
+                case ADD -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] + b[bo + i]; }
+                case SUB -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] - b[bo + i]; }
+                case MUL -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] * b[bo + i]; }
+                case DIV -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] / nonZero(b[bo + i]); }
+                case POW -> { for (int i = 0; i < n; i++) d[i] = pow(a[ao + i], b[bo + i]); }
+                case ADD_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.addExact(a[ao + i], b[bo + i]); }
+                case SUB_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.subtractExact(a[ao + i], b[bo + i]); }
+                case MUL_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.multiplyExact(a[ao + i], b[bo + i]); }
+                case DIV_EXACT -> { for (int i = 0; i < n; i++) d[i] = Math.divideExact(a[ao + i], nonZero(b[bo + i])); }
+                case POW_EXACT -> { for (int i = 0; i < n; i++) d[i] = powExact(a[ao + i], b[bo + i]); }
+                default -> throw new IllegalStateException("Bad opcode " + op);
+            }
+        }
+    }
+
+    /* ==================== DOUBLE ==================== */
+    private static final class DoubleRunner implements Runner {
+        private final int[] code;
+        private final double[] consts;
+        private final int maxStack, tempBase;
+        private final double[][] columns;
+        private final double[] out;
+
+        DoubleRunner(CompiledExpression e, double[][] columns, double[] out) {
+            this.code = e.code();
+            this.consts = e.doubleConsts();
+            this.maxStack = e.maxStack();
+            this.tempBase = e.tempBase();
+            this.columns = columns;
+            this.out = out;
+        }
+
+        @Override
+        public void run(int from, int to) {
+            double[][] tmp = new double[maxStack][BLOCK];
+            double[][] src = new double[maxStack][];
+            int[] off = new int[maxStack];
+            for (int base = from; base < to; base += BLOCK) {
+                int n = Math.min(BLOCK, to - base);
+                int sp = -1;
+                for (int pc = 0; pc < code.length; pc++) {
+                    int op = code[pc];
+                    switch (op) {
+                        case CONST -> {
+                            sp++;
+                            Arrays.fill(tmp[sp], 0, n, consts[code[++pc]]);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                        case VAR -> { sp++; src[sp] = columns[code[++pc]]; off[sp] = base; }
+                        case LOAD -> { sp++; src[sp] = tmp[tempBase + code[++pc]]; off[sp] = 0; }
+                        case STORE -> System.arraycopy(src[sp], off[sp], tmp[tempBase + code[++pc]], 0, n);
+                        case NEG -> {
+                            double[] a = src[sp], d = tmp[sp];
+                            int ao = off[sp];
+                            for (int i = 0; i < n; i++) d[i] = -a[ao + i];
+                            src[sp] = d; off[sp] = 0;
+                        }
+                        default -> {
+                            sp--;
+                            binary(op, src[sp], off[sp], src[sp + 1], off[sp + 1], tmp[sp], n);
+                            src[sp] = tmp[sp]; off[sp] = 0;
+                        }
+                    }
+                }
+                System.arraycopy(src[0], off[0], out, base, n);
+            }
+        }
+
+        private static void binary(int op, double[] a, int ao, double[] b, int bo, double[] d, int n) {
+            switch (op) {
+                case ADD -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] + b[bo + i]; }
+                case SUB -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] - b[bo + i]; }
+                case MUL -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] * b[bo + i]; }
+                case DIV -> { for (int i = 0; i < n; i++) d[i] = a[ao + i] / b[bo + i]; }
+                case POW -> { for (int i = 0; i < n; i++) d[i] = Math.pow(a[ao + i], b[bo + i]); }
+                default -> throw new IllegalStateException("Bad opcode " + op);
+            }
+        }
+    }
+
+    /* ==================== Demo + đo nhanh ==================== */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        CompiledExpression e = ExpressionCompiler.compile("(price - cost) * qty + fee / 2", NumericMode.DOUBLE, false,
+                "price", "cost", "qty", "fee");
+        java.util.Random rnd = new java.util.Random(42);
+        double[][] cols = new double[4][rows];
+        for (double[] c : cols) for (int i = 0; i < rows; i++) c[i] = rnd.nextInt(1000) + 1;
+        double[] out = new double[rows];
+        double[] vars = new double[4], stack = e.newDoubleStack();
+
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                for (int v = 0; v < 4; v++) vars[v] = cols[v][i];
+                out[i] = e.evalDouble(vars, stack);
+            }
+            long t1 = System.nanoTime();
+            evalDouble(e, cols, out);
+            long t2 = System.nanoTime();
+            evalDouble(e, cols, out, ForkJoinPool.commonPool());
+            long t3 = System.nanoTime();
+            System.out.printf("per-row: %5.2f ns/row | batch: %5.2f ns/row | batch+FJ(%d): %5.2f ns/row%n",
+                    (t1 - t0) / (double) rows, (t2 - t1) / (double) rows,
+                    ForkJoinPool.commonPool().getParallelism(), (t3 - t2) / (double) rows);
+        }
+        System.out.println("row 0: " + out[0]);
+    }
+}
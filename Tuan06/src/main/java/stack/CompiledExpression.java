@@ -0,0 +1,326 @@
+package stack;
+
+/**
+ * Biểu thức đã biên dịch sang RPN dạng mảng int gọn (xem ExpressionCompiler).
+ * - code: dãy lệnh; CONST và VAR có thêm 1 toán hạng (chỉ số hằng / chỉ số biến) ngay sau opcode.
+ * - Kiểu số (NumericMode) và chế độ kiểm tra tràn được chốt lúc biên dịch: mỗi kiểu có
+ *   vòng lặp eval riêng trên mảng nguyên thủy (int[] / long[] / double[]), không boxing;
+ *   lệnh *_EXACT chỉ được phát khi bật kiểm tra tràn nên đường không kiểm tra không tốn gì thêm.
+ *
+ * Biến tạm (LOAD/STORE) được đặt ở cuối chính mảng stack, từ chỉ số tempBase trở đi,
+ * nên maxStack() đã gồm cả chỗ cho chúng.
+ *
+ * Đối tượng bất biến nên dùng chung giữa nhiều luồng được; stack tạm truyền vào
+ * eval(vars, stack) thì mỗi luồng phải có cái riêng.
+ */
+public final class CompiledExpression {
+    // Opcode
+    static final int CONST = 0;  // CONST k  : đẩy hằng thứ k trong bảng hằng
+    static final int VAR   = 1;  // VAR i    : đẩy vars[i]
+    static final int ADD   = 2;
+    static final int SUB   = 3;
+    static final int MUL   = 4;
+    static final int DIV   = 5;
+    static final int POW   = 6;
+    static final int NEG   = 7;  // đổi dấu đỉnh stack (trừ 1 ngôi)
+    // Bản có kiểm tra tràn số (Math.*Exact), chỉ dùng cho INT / LONG
+    static final int ADD_EXACT = 8;
+    static final int SUB_EXACT = 9;
+    static final int MUL_EXACT = 10;
+    static final int DIV_EXACT = 11;
+    static final int POW_EXACT = 12;
+    static final int NEG_EXACT = 13;
+    // Biến tạm cho biểu thức con dùng chung (ExpressionOptimizer), nằm sau vùng stack
+    static final int LOAD  = 14; // LOAD t   : đẩy tạm t
+    static final int STORE = 15; // STORE t  : chép đỉnh stack vào tạm t (không pop)
+
+    private final String source;
+    private final NumericMode mode;
+    private final boolean overflowChecked;
+    private final int[] code;
+    private final long[] longConsts;     // hằng cho INT / LONG
+    private final double[] doubleConsts; // hằng cho DOUBLE
+    private final String[] vars;
+    private final int maxStack;
+    private final int tempBase;
+
+    CompiledExpression(String source, NumericMode mode, boolean overflowChecked, int[] code,
+                       long[] longConsts, double[] doubleConsts, String[] vars, int maxStack) {
+        this(source, mode, overflowChecked, code, longConsts, doubleConsts, vars, maxStack, 0);
+    }
+
+    CompiledExpression(String source, NumericMode mode, boolean overflowChecked, int[] code,
+                       long[] longConsts, double[] doubleConsts, String[] vars, int maxDepth, int temps) {
+        this.source = source;
+        this.mode = mode;
+        this.overflowChecked = overflowChecked;
+        this.code = code;
+        this.longConsts = longConsts;
+        this.doubleConsts = doubleConsts;
+        this.vars = vars;
+        this.maxStack = maxDepth + temps;
+        this.tempBase = maxDepth;
+    }
+
+    public String source() { return source; }
+    public NumericMode mode() { return mode; }
+    public boolean overflowChecked() { return overflowChecked; }
+    public int variableCount() { return vars.length; }
+    public String variableName(int i) { return vars[i]; }
+    /** Kích thước stack tạm cần cấp cho eval(vars, stack): độ sâu lớn nhất + số biến tạm. */
+    public int maxStack() { return maxStack; }
+
+    public int indexOf(String name) {
+        for (int i = 0; i < vars.length; i++) if (vars[i].equals(name)) return i;
+        return -1;
+    }
+
+    // Cho BatchEvaluator / các pass khác trong package đọc trực tiếp (không copy, không được sửa)
+    int[] code() { return code; }
+    long[] longConsts() { return longConsts; }
+    double[] doubleConsts() { return doubleConsts; }
+    int tempBase() { return tempBase; }
+    String[] vars() { return vars; }
+
+    public int[] newStack() { return new int[maxStack]; }
+    public long[] newLongStack() { return new long[maxStack]; }
+    public double[] newDoubleStack() { return new double[maxStack]; }
+
+    /* ==================== INT ==================== */
+    public int eval(int... vars) {
+        return eval(vars, new int[maxStack]);
+    }
+
+    /** Đường chạy nóng: không cấp phát, stack do người gọi giữ và dùng lại. */
+    public int eval(int[] vars, int[] stack) {
+        checkCall(NumericMode.INT, vars.length);
+        final int[] code = this.code;
+        final long[] consts = this.longConsts;
+        int sp = -1;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case CONST -> stack[++sp] = (int) consts[code[++pc]];
+                case VAR   -> stack[++sp] = vars[code[++pc]];
+                case LOAD  -> stack[++sp] = stack[tempBase + code[++pc]];
+                case STORE -> stack[tempBase + code[++pc]] = stack[sp];
+                case ADD   -> { sp--; stack[sp] = stack[sp] + stack[sp + 1]; }
+                case SUB   -> { sp--; stack[sp] = stack[sp] - stack[sp + 1]; }
+                case MUL   -> { sp--; stack[sp] = stack[sp] * stack[sp + 1]; }
+                case DIV   -> { sp--; stack[sp] = stack[sp] / nonZero(stack[sp + 1]); }
+                case POW   -> { sp--; stack[sp] = Main.applyOp(stack[sp], stack[sp + 1], '^'); }
+                case NEG   -> stack[sp] = -stack[sp];
+                case ADD_EXACT -> { sp--; stack[sp] = Math.addExact(stack[sp], stack[sp + 1]); }
+                case SUB_EXACT -> { sp--; stack[sp] = Math.subtractExact(stack[sp], stack[sp + 1]); }
+                case MUL_EXACT -> { sp--; stack[sp] = Math.multiplyExact(stack[sp], stack[sp + 1]); }
+                case DIV_EXACT -> { sp--; stack[sp] = Math.divideExact(stack[sp], nonZero(stack[sp + 1])); }
+                case POW_EXACT -> { sp--; stack[sp] = Math.toIntExact(powExact(stack[sp], stack[sp + 1])); }
+                case NEG_EXACT -> stack[sp] = Math.negateExact(stack[sp]);
+                default -> throw badOpcode(pc);
+            }
+        }
+        return stack[0];
+    }
+
+    /* ==================== LONG ==================== */
+    public long evalLong(long... vars) {
+        return evalLong(vars, new long[maxStack]);
+    }
+
+    public long evalLong(long[] vars, long[] stack) {
+        checkCall(NumericMode.LONG, vars.length);
+        final int[] code = this.code;
+        final long[] consts = this.longConsts;
+        int sp = -1;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case CONST -> stack[++sp] = consts[code[++pc]];
+                case VAR   -> stack[++sp] = vars[code[++pc]];
+                case LOAD  -> stack[++sp] = stack[tempBase + code[++pc]];
+                case STORE -> stack[tempBase + code[++pc]] = stack[sp];
+                case ADD   -> { sp--; stack[sp] = stack[sp] + stack[sp + 1]; }
+                case SUB   -> { sp--; stack[sp] = stack[sp] - stack[sp + 1]; }
+                case MUL   -> { sp--; stack[sp] = stack[sp] * stack[sp + 1]; }
+                case DIV   -> { sp--; stack[sp] = stack[sp] / nonZero(stack[sp + 1]); }
+                case POW   -> { sp--; stack[sp] = pow(stack[sp], stack[sp + 1]); }
+                case NEG   -> stack[sp] = -stack[sp];
+                case ADD_EXACT -> { sp--; stack[sp] = Math.addExact(stack[sp], stack[sp + 1]); }
+                case SUB_EXACT -> { sp--; stack[sp] = Math.subtractExact(stack[sp], stack[sp + 1]); }
+                case MUL_EXACT -> { sp--; stack[sp] = Math.multiplyExact(stack[sp], stack[sp + 1]); }
+                case DIV_EXACT -> { sp--; stack[sp] = Math.divideExact(stack[sp], nonZero(stack[sp + 1])); }
+                case POW_EXACT -> { sp--; stack[sp] = powExact(stack[sp], stack[sp + 1]); }
+                case NEG_EXACT -> stack[sp] = Math.negateExact(stack[sp]);
+                default -> throw badOpcode(pc);
+            }
+        }
+        return stack[0];
+    }
+
+    /* ==================== DOUBLE ==================== */
+    public double evalDouble(double... vars) {
+        return evalDouble(vars, new double[maxStack]);
+    }
+
+    public double evalDouble(double[] vars, double[] stack) {
+        checkCall(NumericMode.DOUBLE, vars.length);
+        final int[] code = this.code;
+        final double[] consts = this.doubleConsts;
+        int sp = -1;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case CONST -> stack[++sp] = consts[code[++pc]];
+                case VAR   -> stack[++sp] = vars[code[++pc]];
+                case LOAD  -> stack[++sp] = stack[tempBase + code[++pc]];
+                case STORE -> stack[tempBase + code[++pc]] = stack[sp];
+                case ADD   -> { sp--; stack[sp] = stack[sp] + stack[sp + 1]; }
+                case SUB   -> { sp--; stack[sp] = stack[sp] - stack[sp + 1]; }
+                case MUL   -> { sp--; stack[sp] = stack[sp] * stack[sp + 1]; }
+                case DIV   -> { sp--; stack[sp] = stack[sp] / stack[sp + 1]; }
+                case POW   -> { sp--; stack[sp] = Math.pow(stack[sp], stack[sp + 1]); }
+                case NEG   -> stack[sp] = -stack[sp];
+                default -> throw badOpcode(pc);
+            }
+        }
+        return stack[0];
+    }
+
+    /* ==================== Helpers ==================== */
+    private void checkCall(NumericMode expected, int varsLength) {
+        if (mode != expected) {
+            throw new IllegalStateException("Expression compiled as " + mode + ", not " + expected);
+        }
+        if (varsLength < vars.length) {
+            throw new IllegalArgumentException("Expected " + vars.length + " variables, got " + varsLength);
+        }
+    }
+
+    private IllegalStateException badOpcode(int pc) {
+        return new IllegalStateException("Bad opcode " + code[pc] + " at " + pc);
+    }
+
+    static int nonZero(int b) {
+        if (b == 0) throw new ArithmeticException("Division by zero");
+        return b;
+    }
+
+    static long nonZero(long b) {
+        if (b == 0) throw new ArithmeticException("Division by zero");
+        return b;
+    }
+
+    // ^ cho long, cùng cách bình phương lặp (tràn thì quay vòng) như Main.applyOp
+    static long pow(long base, long exp) {
+        if (exp < 0) throw new ArithmeticException("Negative exponent");
+        long res = 1;
+        while (exp > 0) {
+            if ((exp & 1) == 1) res *= base;
+            base *= base;
+            exp >>= 1;
+        }
+        return res;
+    }
+
+    // ^ có kiểm tra tràn: chỉ bình phương base khi còn dùng tới để tránh báo tràn oan
+    static long powExact(long base, long exp) {
+        if (exp < 0) throw new ArithmeticException("Negative exponent");
+        long res = 1;
+        while (exp > 0) {
+            if ((exp & 1) == 1) res = Math.multiplyExact(res, base);
+            exp >>= 1;
+            if (exp > 0) base = Math.multiplyExact(base, base);
+        }
+        return res;
+    }
+
+    /**
+     * Tính 1 phép toán số nguyên đúng như vòng eval (INT quay vòng 32 bit, LONG 64 bit,
+     * exact = bản *_EXACT). Dùng cho gộp hằng và các bộ tính trên cây; NEG bỏ qua b.
+     */
+    static long applyLong(NumericMode mode, boolean exact, int op, long a, long b) {
+        if (mode == NumericMode.INT) {
+            int x = (int) a, y = (int) b;
+            if (exact) {
+                return switch (op) {
+                    case ADD -> Math.addExact(x, y);
+                    case SUB -> Math.subtractExact(x, y);
+                    case MUL -> Math.multiplyExact(x, y);
+                    case DIV -> Math.divideExact(x, nonZero(y));
+                    case POW -> Math.toIntExact(powExact(x, y));
+                    case NEG -> Math.negateExact(x);
+                    default -> throw new IllegalStateException("Bad opcode " + op);
+                };
+            }
+            return switch (op) {
+                case ADD -> x + y;
+                case SUB -> x - y;
+                case MUL -> x * y;
+                case DIV -> x / nonZero(y);
+                case POW -> Main.applyOp(x, y, '^');
+                case NEG -> -x;
+                default -> throw new IllegalStateException("Bad opcode " + op);
+            };
+        }
+        if (exact) {
+            return switch (op) {
+                case ADD -> Math.addExact(a, b);
+                case SUB -> Math.subtractExact(a, b);
+                case MUL -> Math.multiplyExact(a, b);
+                case DIV -> Math.divideExact(a, nonZero(b));
+                case POW -> powExact(a, b);
+                case NEG -> Math.negateExact(a);
+                default -> throw new IllegalStateException("Bad opcode " + op);
+            };
+        }
+        return switch (op) {
+            case ADD -> a + b;
+            case SUB -> a - b;
+            case MUL -> a * b;
+            case DIV -> a / nonZero(b);
+            case POW -> pow(a, b);
+            case NEG -> -a;
+            default -> throw new IllegalStateException("Bad opcode " + op);
+        };
+    }
+
+    static double applyDouble(int op, double a, double b) {
+        return switch (op) {
+            case ADD -> a + b;
+            case SUB -> a - b;
+            case MUL -> a * b;
+            case DIV -> a / b;
+            case POW -> Math.pow(a, b);
+            case NEG -> -a;
+            default -> throw new IllegalStateException("Bad opcode " + op);
+        };
+    }
+
+    /** Dạng RPN đọc được, ví dụ "x 2 ^ 3 +". */
+    public String toRpn() {
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc++) {
+            if (sb.length() > 0) sb.append(' ');
+            switch (code[pc]) {
+                case CONST -> {
+                    int k = code[++pc];
+                    if (mode == NumericMode.DOUBLE) sb.append(doubleConsts[k]);
+                    else sb.append(longConsts[k]);
+                }
+                case VAR   -> sb.append(vars[code[++pc]]);
+                case LOAD  -> sb.append('t').append(code[++pc]);
+                case STORE -> sb.append("->t").append(code[++pc]);
+                case ADD, ADD_EXACT -> sb.append('+');
+                case SUB, SUB_EXACT -> sb.append('-');
+                case MUL, MUL_EXACT -> sb.append('*');
+                case DIV, DIV_EXACT -> sb.append('/');
+                case POW, POW_EXACT -> sb.append('^');
+                case NEG, NEG_EXACT -> sb.append("neg");
+                default -> throw badOpcode(pc);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return source + "  =>  " + toRpn() + "  [" + mode + (overflowChecked ? ", checked" : "") + "]";
+    }
+}
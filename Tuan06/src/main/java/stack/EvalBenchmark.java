@@ -0,0 +1,141 @@
+package stack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bộ đo hiệu năng JMH cho các cách tính biểu thức trong package stack:
+ * Main.evalInfix/evalPostfix/evalPrefix, ExpressionEvaluator (3 cách viết), CompiledExpression
+ * (biên dịch sẵn, có/không tối ưu) và ExpressionCache (tra cache theo chuỗi mỗi lần).
+ * - Biểu thức do ExpressionGenerator sinh: kích thước, độ sâu, tập phép toán, số biến là các @Param;
+ *   bản biên dịch dùng công thức có biến (để optimizer không gập cả biểu thức thành 1 hằng),
+ *   các bản tính từ chuỗi dùng cùng công thức đã thay biến bằng giá trị.
+ * - Mỗi lần gọi tính 1 biểu thức, lần lượt vòng qua 'count' biểu thức khác nhau để JIT / branch predictor
+ *   không "học thuộc" 1 chuỗi. Kết quả được trả về để JMH đưa vào Blackhole (không bị loại bỏ như code chết).
+ * - Khởi động, số lượt đo và fork JVM riêng do JMH quản lý; ops/s kèm sai số là Mode.Throughput,
+ *   byte cấp phát / lần tính lấy từ "-prof gc" (gc.alloc.rate.norm).
+ * - Kết quả cho pipeline đo hiệu năng: "-rf csv -rff eval.csv" (hoặc -rf json).
+ *
+ * Chạy: java -cp target/classes:jmh-core.jar:... stack.EvalBenchmark [tùy chọn JMH],
+ *       ví dụ: -p size=50,200 -p ops=+-* -prof gc -rf csv -rff eval.csv
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+@State(Scope.Thread)
+public class EvalBenchmark {
+    @Param("50")
+    public int size;
+    @Param("12")
+    public int depth;
+    @Param("+-*^/")
+    public String ops;
+    @Param("4")
+    public int variables;
+    @Param("256")
+    public int count;
+    @Param("1")
+    public long seed;
+
+    private String[] infix, postfix, prefix;
+    private CompiledExpression[] compiled, optimized;
+    private int[] vars, stack;
+    private ExpressionEvaluator ev;
+    private ExpressionCache cache;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ExpressionGenerator gen = new ExpressionGenerator(seed, depth, ops, 99, variables);
+        String[] varNames = gen.variableNames();
+        vars = gen.variableValues();
+        infix = new String[count];
+        postfix = new String[count];
+        prefix = new String[count];
+        compiled = new CompiledExpression[count];
+        optimized = new CompiledExpression[count];
+        int maxStack = 1;
+        for (int i = 0; i < count; i++) {
+            ExpressionGenerator.Sample s = gen.sample(size);
+            infix[i] = s.infix();
+            postfix[i] = s.postfix();
+            prefix[i] = s.prefix();
+            compiled[i] = ExpressionCompiler.compile(s.symbolic(), varNames);
+            optimized[i] = ExpressionOptimizer.optimize(compiled[i]);
+            maxStack = Math.max(maxStack, Math.max(compiled[i].maxStack(), optimized[i].maxStack()));
+        }
+        stack = new int[maxStack];
+        ev = new ExpressionEvaluator();
+        cache = new ExpressionCache(2 * count); // chuỗi infix + dạng chuẩn hóa
+
+        // mọi cách tính phải ra cùng kết quả, nếu không thì số đo vô nghĩa
+        for (int i = 0; i < count; i++) {
+            int expected = Main.evalInfix(infix[i]);
+            int[] got = {
+                    Main.evalPostfix(postfix[i]), Main.evalPrefix(prefix[i]),
+                    ev.evalInfix(infix[i]), ev.evalPostfix(postfix[i]), ev.evalPrefix(prefix[i]),
+                    compiled[i].eval(vars, stack), optimized[i].eval(vars, stack), cache.evalInfix(infix[i])
+            };
+            for (int v : got) {
+                if (v != expected) {
+                    throw new IllegalStateException("got " + v + " but Main.evalInfix = " + expected + " for: " + infix[i]);
+                }
+            }
+        }
+        next = 0;
+    }
+
+    // Chỉ số biểu thức kế tiếp, vòng qua cả bộ mẫu
+    private int index() {
+        int i = next;
+        next = i + 1 == count ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public int mainInfix() { return Main.evalInfix(infix[index()]); }
+
+    @Benchmark
+    public int mainPostfix() { return Main.evalPostfix(postfix[index()]); }
+
+    @Benchmark
+    public int mainPrefix() { return Main.evalPrefix(prefix[index()]); }
+
+    @Benchmark
+    public int evaluatorInfix() { return ev.evalInfix(infix[index()]); }
+
+    @Benchmark
+    public int evaluatorPostfix() { return ev.evalPostfix(postfix[index()]); }
+
+    @Benchmark
+    public int evaluatorPrefix() { return ev.evalPrefix(prefix[index()]); }
+
+    @Benchmark
+    public int compiledEval() { return compiled[index()].eval(vars, stack); }
+
+    @Benchmark
+    public int optimizedEval() { return optimized[index()].eval(vars, stack); }
+
+    @Benchmark
+    public int cacheEvalInfix() { return cache.evalInfix(infix[index()]); }
+
+    public static void main(String[] args) throws Exception {
+        String[] jmhArgs = new String[args.length + 1];
+        jmhArgs[0] = EvalBenchmark.class.getName();
+        System.arraycopy(args, 0, jmhArgs, 1, args.length);
+        org.openjdk.jmh.Main.main(jmhArgs);
+    }
+}
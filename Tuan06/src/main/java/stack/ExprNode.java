@@ -0,0 +1,80 @@
+package stack;
+
+/**
+ * Nút của cây biểu thức (dựng lại từ RPN của CompiledExpression).
+ * - op là opcode gốc của CompiledExpression (CONST, VAR, ADD..NEG); bản *_EXACT được
+ *   quy về opcode gốc, việc có kiểm tra tràn hay không là thuộc tính của cả biểu thức.
+ * - equals/hashCode so sánh theo cấu trúc nhưng so con bằng ==: khi các nút đã được
+ *   "intern" (ExpressionOptimizer) thì 2 cây con bằng nhau luôn là cùng 1 đối tượng,
+ *   nhờ vậy so sánh / băm chỉ tốn O(1) mỗi nút.
+ */
+final class ExprNode {
+    final int op;
+    final long lval;     // hằng INT / LONG
+    final double dval;   // hằng DOUBLE
+    final int var;       // chỉ số biến
+    final ExprNode left, right;
+    final int size;      // số nút của cây con (tính như cây, không gộp nút dùng chung)
+    final boolean canThrow; // có thể ném ArithmeticException khi tính (chia 0, tràn, mũ âm)
+    private final int hash;
+
+    private ExprNode(int op, long lval, double dval, int var, ExprNode left, ExprNode right, boolean canThrow) {
+        this.op = op;
+        this.lval = lval;
+        this.dval = dval;
+        this.var = var;
+        this.left = left;
+        this.right = right;
+        long s = 1L + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+        this.size = (int) Math.min(Integer.MAX_VALUE, s);
+        this.canThrow = canThrow || (left != null && left.canThrow) || (right != null && right.canThrow);
+        int h = op;
+        h = 31 * h + Long.hashCode(lval);
+        h = 31 * h + Double.hashCode(dval);
+        h = 31 * h + var;
+        h = 31 * h + System.identityHashCode(left);
+        h = 31 * h + System.identityHashCode(right);
+        this.hash = h;
+    }
+
+    static ExprNode constant(long v) {
+        return new ExprNode(CompiledExpression.CONST, v, 0, -1, null, null, false);
+    }
+
+    static ExprNode constant(double v) {
+        return new ExprNode(CompiledExpression.CONST, 0, v, -1, null, null, false);
+    }
+
+    static ExprNode variable(int index) {
+        return new ExprNode(CompiledExpression.VAR, 0, 0, index, null, null, false);
+    }
+
+    static ExprNode unary(int op, ExprNode x, boolean canThrow) {
+        return new ExprNode(op, 0, 0, -1, x, null, canThrow);
+    }
+
+    static ExprNode binary(int op, ExprNode a, ExprNode b, boolean canThrow) {
+        return new ExprNode(op, 0, 0, -1, a, b, canThrow);
+    }
+
+    boolean isLeaf() { return left == null; }
+    boolean isConst() { return op == CompiledExpression.CONST; }
+
+    /** Quy opcode *_EXACT về opcode gốc. */
+    static int baseOp(int op) {
+        if (op < CompiledExpression.ADD_EXACT || op > CompiledExpression.NEG_EXACT) return op;
+        return op - (CompiledExpression.ADD_EXACT - CompiledExpression.ADD);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExprNode x)) return false;
+        return hash == x.hash && op == x.op && lval == x.lval
+                && Double.doubleToLongBits(dval) == Double.doubleToLongBits(x.dval)
+                && var == x.var && left == x.left && right == x.right;
+    }
+
+    @Override
+    public int hashCode() { return hash; }
+}
@@ -0,0 +1,180 @@
+package stack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static stack.Main.isSpace;
+
+/**
+ * Cache biểu thức đã biên dịch (+ tối ưu), khóa = chuỗi nguồn; mỗi khóa giữ 1 bản biên dịch cho mỗi
+ * cặp (mode, kiểm tra tràn).
+ * - Tra trước theo đúng chuỗi nguồn: lần hit không cấp phát gì (String tự cache hashCode).
+ * - Chuẩn hóa: bỏ khoảng trắng (' ', '\t' như ExpressionCompiler; ký tự khác, kể cả xuống dòng, để nguyên
+ *   cho compiler báo lỗi), trừ khoảng trắng nằm giữa 2 ký tự chữ/số ("a b" vẫn là lỗi
+ *   chứ không thành biến "ab"), nên "1+2" và " 1 + 2 " dùng chung 1 bản biên dịch.
+ *   Chỉ chuẩn hóa khi tra chuỗi nguồn bị miss; chuỗi nguồn được thêm làm khóa phụ trỏ tới cùng bản biên dịch.
+ * - Giới hạn maxSize khóa (chuỗi nguồn và dạng chuẩn hóa của nó là 2 khóa nếu khác nhau),
+ *   bỏ khóa ít dùng gần đây nhất (LRU, LinkedHashMap accessOrder).
+ * - Thread-safe: map được khóa trong thời gian rất ngắn; việc biên dịch khi miss chạy ngoài khóa
+ *   (2 luồng cùng miss 1 công thức có thể biên dịch 2 lần, kết quả như nhau, giữ bản vào trước).
+ * - Thống kê hit / miss / eviction bằng LongAdder để không thành điểm nghẽn khi nhiều luồng.
+ */
+public final class ExpressionCache {
+    private final int maxSize;
+    private final LinkedHashMap<String, CompiledExpression[]> map;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // số ô trong mảng giá trị: NumericMode x (kiểm tra tràn hay không)
+    private static final int VARIANTS = NumericMode.values().length * 2;
+
+    public ExpressionCache(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize < 1");
+        this.maxSize = maxSize;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression[]> eldest) {
+                if (size() > ExpressionCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** INT, không kiểm tra tràn. */
+    public CompiledExpression get(String src) {
+        return get(src, NumericMode.INT, false);
+    }
+
+    public CompiledExpression get(String src, NumericMode mode, boolean overflowChecked) {
+        if (src == null) throw new IllegalArgumentException("expression == null");
+        if (mode == null) throw new IllegalArgumentException("mode == null");
+        int variant = mode.ordinal() * 2 + (overflowChecked ? 1 : 0);
+        CompiledExpression e = lookup(src, variant);
+        if (e == null) {
+            // cùng công thức, khác khoảng trắng: dùng lại bản đã biên dịch của dạng chuẩn hóa
+            String norm = normalize(src);
+            if (norm != src) e = lookup(norm, variant);
+            if (e == null) {
+                misses.increment();
+                CompiledExpression compiled = ExpressionOptimizer.optimize(
+                        ExpressionCompiler.compile(norm, mode, overflowChecked));
+                synchronized (map) {
+                    e = putIfAbsent(norm, variant, compiled);
+                    if (norm != src) putIfAbsent(src, variant, e);
+                }
+                return e;
+            }
+            synchronized (map) {
+                putIfAbsent(src, variant, e);
+            }
+        }
+        hits.increment();
+        return e;
+    }
+
+    private CompiledExpression lookup(String key, int variant) {
+        synchronized (map) {
+            CompiledExpression[] forms = map.get(key);
+            return forms == null ? null : forms[variant];
+        }
+    }
+
+    // Gọi khi đang giữ khóa map; trả bản đang có nếu luồng khác đã biên dịch trước
+    private CompiledExpression putIfAbsent(String key, int variant, CompiledExpression e) {
+        CompiledExpression[] forms = map.get(key);
+        if (forms == null) {
+            forms = new CompiledExpression[VARIANTS];
+            map.put(key, forms);
+        }
+        if (forms[variant] == null) forms[variant] = e;
+        return forms[variant];
+    }
+
+    /** Thay cho Main.evalInfix với các công thức lặp lại; biến theo thứ tự xuất hiện đầu tiên. */
+    public int evalInfix(String src, int... vars) {
+        return get(src).eval(vars);
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public int maxSize() { return maxSize; }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    public long hitCount() { return hits.sum(); }
+    public long missCount() { return misses.sum(); }
+    public long evictionCount() { return evictions.sum(); }
+
+    public double hitRate() {
+        long h = hits.sum(), m = misses.sum();
+        return h + m == 0 ? 0.0 : (double) h / (h + m);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExpressionCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%]",
+                size(), maxSize, hitCount(), missCount(), evictionCount(), hitRate() * 100);
+    }
+
+    /* ==================== Helpers ==================== */
+    static String normalize(String s) {
+        StringBuilder sb = null;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (!isSpace(c)) {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) sb = new StringBuilder(n).append(s, 0, i);
+            int j = i;
+            while (j + 1 < n && isSpace(s.charAt(j + 1))) j++;
+            // giữ 1 dấu cách nếu bỏ đi sẽ dính 2 token chữ/số vào nhau
+            if (sb.length() > 0 && j + 1 < n && isWordChar(sb.charAt(sb.length() - 1)) && isWordChar(s.charAt(j + 1))) {
+                sb.append(' ');
+            }
+            i = j;
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /* ==================== Demo ==================== */
+    public static void main(String[] args) throws InterruptedException {
+        ExpressionCache cache = new ExpressionCache(4);
+        String[] formulas = { "1 + 2*x", "1+2*x", "(a - b) * 3", "x^2 + 2^10", " 1 +  2 * x " };
+        for (String f : formulas) {
+            CompiledExpression e = cache.get(f);
+            System.out.println("'" + f + "' -> " + e.toRpn());
+        }
+        System.out.println(cache);
+
+        // nhiều luồng cùng dùng 1 cache
+        ExpressionCache shared = new ExpressionCache(64);
+        Thread[] ts = new Thread[4];
+        for (int t = 0; t < ts.length; t++) {
+            ts[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) shared.evalInfix("x * " + (i % 32) + " + 1", i);
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts) t.join();
+        System.out.println(shared);
+    }
+}
@@ -0,0 +1,280 @@
+package stack;
+
+import static stack.Main.isDigit;
+import static stack.Main.isOp;
+import static stack.Main.isRightAssoc;
+import static stack.Main.isSpace;
+import static stack.Main.prec;
+
+/**
+ * Biên dịch 1 lần biểu thức infix -> CompiledExpression (RPN mảng int), tính nhiều lần.
+ * - Cùng cú pháp với Main.evalInfix, thêm biến có tên: [A-Za-z_][A-Za-z0-9_]*
+ * - Trừ 1 ngôi trước biến / ngoặc: "-x", "-(a+b)" (gắn chặt hơn ^, giống "-2^2" = 4 của Main)
+ * - Thuật toán: shunting-yard như evalInfix, nhưng thay vì tính thì phát lệnh ra mảng.
+ * - NumericMode chọn kiểu số (INT mặc định, LONG, DOUBLE); overflowChecked = true thì
+ *   phát lệnh *_EXACT (Math.addExact...) và báo lỗi hằng số vượt miền giá trị.
+ */
+public final class ExpressionCompiler {
+    private static final char NEG_OP = '~'; // toán tử trừ 1 ngôi trên CharStack
+
+    private ExpressionCompiler() {
+    }
+
+    /** INT, không kiểm tra tràn; biến được đánh số theo thứ tự xuất hiện đầu tiên. */
+    public static CompiledExpression compile(String src) {
+        return new Builder(src, NumericMode.INT, false, null).build();
+    }
+
+    /** Cố định thứ tự biến; gặp tên không có trong danh sách thì báo lỗi. */
+    public static CompiledExpression compile(String src, String... varNames) {
+        return new Builder(src, NumericMode.INT, false, varNames).build();
+    }
+
+    public static CompiledExpression compile(String src, NumericMode mode, boolean overflowChecked) {
+        return new Builder(src, mode, overflowChecked, null).build();
+    }
+
+    public static CompiledExpression compile(String src, NumericMode mode, boolean overflowChecked,
+                                             String... varNames) {
+        return new Builder(src, mode, overflowChecked, varNames).build();
+    }
+
+    private static boolean isIdentStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+    private static boolean isIdentPart(char c) { return isIdentStart(c) || isDigit(c); }
+
+    private static int opcode(char op, boolean exact) {
+        switch (op) {
+            case '+': return exact ? CompiledExpression.ADD_EXACT : CompiledExpression.ADD;
+            case '-': return exact ? CompiledExpression.SUB_EXACT : CompiledExpression.SUB;
+            case '*': return exact ? CompiledExpression.MUL_EXACT : CompiledExpression.MUL;
+            case '/': return exact ? CompiledExpression.DIV_EXACT : CompiledExpression.DIV;
+            case '^': return exact ? CompiledExpression.POW_EXACT : CompiledExpression.POW;
+            case NEG_OP: return exact ? CompiledExpression.NEG_EXACT : CompiledExpression.NEG;
+        }
+        throw new RuntimeException("Unknown operator: " + op);
+    }
+
+    private static int precOf(char op) { return op == NEG_OP ? 4 : prec(op); }
+
+    /* ==================== trạng thái 1 lần biên dịch ==================== */
+    private static final class Builder {
+        private final String src;
+        private final NumericMode mode;
+        private final boolean exact; // phát lệnh *_EXACT (chỉ INT / LONG)
+        private final boolean fixedVars;
+        private String[] vars;
+        private int varCount;
+
+        private int[] code = new int[16];
+        private int len;
+        private long[] longConsts = new long[4];
+        private double[] doubleConsts = new double[4];
+        private int constCount;
+        private int depth, maxDepth;
+
+        private final Main.CharStack ops = new Main.CharStack();
+
+        Builder(String src, NumericMode mode, boolean overflowChecked, String[] varNames) {
+            if (src == null) throw new IllegalArgumentException("expression == null");
+            if (mode == null) throw new IllegalArgumentException("mode == null");
+            this.src = src;
+            this.mode = mode;
+            this.exact = overflowChecked && mode != NumericMode.DOUBLE;
+            this.fixedVars = varNames != null;
+            this.vars = fixedVars ? varNames.clone() : new String[4];
+            this.varCount = fixedVars ? varNames.length : 0;
+        }
+
+        CompiledExpression build() {
+            int n = src.length();
+            boolean expectNumber = true;
+
+            for (int i = 0; i < n; ) {
+                char c = src.charAt(i);
+                if (isSpace(c)) { i++; continue; }
+
+                if (c == '(') { ops.push(c); i++; expectNumber = true; continue; }
+                if (c == ')') {
+                    while (!ops.isEmpty() && ops.peek() != '(') emitOp(ops.pop());
+                    if (ops.isEmpty()) throw new RuntimeException("Mismatched parentheses");
+                    ops.pop();
+                    i++; expectNumber = false; continue;
+                }
+
+                if (expectNumber && (isDigit(c) || (c == '-' && i + 1 < n && isDigit(src.charAt(i + 1))))) {
+                    i = literal(i);
+                    expectNumber = false; continue;
+                }
+
+                if (expectNumber && isIdentStart(c)) {
+                    int start = i;
+                    while (i < n && isIdentPart(src.charAt(i))) i++;
+                    emit(CompiledExpression.VAR, varIndex(src.substring(start, i)));
+                    expectNumber = false; continue;
+                }
+
+                if (expectNumber && c == '-') { ops.push(NEG_OP); i++; continue; }
+
+                if (!expectNumber && isOp(c)) {
+                    while (!ops.isEmpty() && ops.peek() != '(' &&
+                            (precOf(ops.peek()) > prec(c) ||
+                                    (precOf(ops.peek()) == prec(c) && !isRightAssoc(c)))) {
+                        emitOp(ops.pop());
+                    }
+                    ops.push(c);
+                    i++; expectNumber = true; continue;
+                }
+
+                throw new RuntimeException("Invalid char '" + c + "' at " + i);
+            }
+
+            while (!ops.isEmpty()) {
+                char op = ops.pop();
+                if (op == '(') throw new RuntimeException("Mismatched '('");
+                emitOp(op);
+            }
+            if (depth != 1) throw new RuntimeException("Invalid expression");
+
+            int[] finalCode = new int[len];
+            System.arraycopy(code, 0, finalCode, 0, len);
+            String[] finalVars = new String[varCount];
+            System.arraycopy(vars, 0, finalVars, 0, varCount);
+            long[] finalLongs = new long[mode == NumericMode.DOUBLE ? 0 : constCount];
+            System.arraycopy(longConsts, 0, finalLongs, 0, finalLongs.length);
+            double[] finalDoubles = new double[mode == NumericMode.DOUBLE ? constCount : 0];
+            System.arraycopy(doubleConsts, 0, finalDoubles, 0, finalDoubles.length);
+            return new CompiledExpression(src, mode, exact, finalCode, finalLongs, finalDoubles,
+                    finalVars, maxDepth);
+        }
+
+        // Đọc hằng bắt đầu tại i (có thể có dấu '-'), phát CONST; trả về vị trí sau hằng
+        private int literal(int i) {
+            int n = src.length();
+            int start = i;
+            boolean negative = src.charAt(i) == '-';
+            if (negative) i++;
+            long val = 0;
+            boolean overflow = false;
+            while (i < n && isDigit(src.charAt(i))) {
+                int d = src.charAt(i) - '0';
+                // tích lũy phía âm như Long.parseLong để -9223372036854775808 vẫn hợp lệ
+                if (val < (Long.MIN_VALUE + d) / 10) overflow = true;
+                val = val * 10 - d;
+                i++;
+            }
+            if (mode == NumericMode.DOUBLE) {
+                if (i < n && src.charAt(i) == '.') {
+                    i++;
+                    while (i < n && isDigit(src.charAt(i))) i++;
+                }
+                emitConst(Double.parseDouble(src.substring(start, i)));
+                return i;
+            }
+            if (!negative) {
+                if (val == Long.MIN_VALUE) overflow = true;
+                val = -val;
+            }
+            if (mode == NumericMode.INT && (val < Integer.MIN_VALUE || val > Integer.MAX_VALUE)) overflow = true;
+            if (overflow && exact) {
+                throw new ArithmeticException("Literal out of " + mode + " range: " + src.substring(start, i));
+            }
+            // không kiểm tra tràn: quay vòng giống cách Main cộng dồn chữ số trên int
+            emitConst(mode == NumericMode.INT ? (int) val : val);
+            return i;
+        }
+
+        private void emitConst(long v) {
+            if (constCount == longConsts.length) {
+                long[] b = new long[constCount * 2];
+                System.arraycopy(longConsts, 0, b, 0, constCount);
+                longConsts = b;
+            }
+            longConsts[constCount] = v;
+            emit(CompiledExpression.CONST, constCount++);
+        }
+
+        private void emitConst(double v) {
+            if (constCount == doubleConsts.length) {
+                double[] b = new double[constCount * 2];
+                System.arraycopy(doubleConsts, 0, b, 0, constCount);
+                doubleConsts = b;
+            }
+            doubleConsts[constCount] = v;
+            emit(CompiledExpression.CONST, constCount++);
+        }
+
+        private int varIndex(String name) {
+            for (int i = 0; i < varCount; i++) if (vars[i].equals(name)) return i;
+            if (fixedVars) throw new RuntimeException("Unknown variable '" + name + "'");
+            if (varCount == vars.length) {
+                String[] b = new String[vars.length * 2];
+                System.arraycopy(vars, 0, b, 0, varCount);
+                vars = b;
+            }
+            vars[varCount] = name;
+            return varCount++;
+        }
+
+        private void emitOp(char op) {
+            if (depth < (op == NEG_OP ? 1 : 2)) throw new RuntimeException("Invalid expression");
+            ensure(1);
+            code[len++] = opcode(op, exact);
+            if (op != NEG_OP) depth--; // toán tử 2 ngôi: lấy 2, đẩy 1
+        }
+
+        private void emit(int op, int operand) {
+            ensure(2);
+            code[len++] = op;
+            code[len++] = operand;
+            if (++depth > maxDepth) maxDepth = depth;
+        }
+
+        private void ensure(int extra) {
+            if (len + extra > code.length) {
+                int[] b = new int[Math.max(code.length * 2, len + extra)];
+                System.arraycopy(code, 0, b, 0, len);
+                code = b;
+            }
+        }
+    }
+
+    /* ==================== Demo + đo nhanh ==================== */
+    public static void main(String[] args) {
+        CompiledExpression e = compile("12 + 3*(x - 4) - y/2 + 2^3", "x", "y");
+        System.out.println(e);
+        System.out.println("x=7, y=10 -> " + e.eval(7, 10));
+
+        CompiledExpression l = compile("a * 3000000000 + 2^40", NumericMode.LONG, false);
+        System.out.println(l + "  a=5 -> " + l.evalLong(5));
+        CompiledExpression d = compile("(price - cost) / price * 100", NumericMode.DOUBLE, false);
+        System.out.println(d + "  -> " + d.evalDouble(12.5, 10.0));
+        CompiledExpression chk = compile("x * x", NumericMode.INT, true);
+        try {
+            chk.eval(100_000);
+        } catch (ArithmeticException ex) {
+            System.out.println(chk + "  x=100000 -> " + ex.getMessage());
+        }
+
+        String src = "12 + 3*(7 - 4) - 10/2 + 2^3";
+        CompiledExpression c = compile(src);
+        ExpressionEvaluator ev = new ExpressionEvaluator();
+        int[] vars = new int[0], stack = c.newStack();
+        int rounds = 2_000_000;
+        long sink = 0;
+        for (int warm = 0; warm < 3; warm++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < rounds; i++) sink += Main.evalInfix(src);
+            long t1 = System.nanoTime();
+            for (int i = 0; i < rounds; i++) sink += ev.evalInfix(src);
+            long t2 = System.nanoTime();
+            for (int i = 0; i < rounds; i++) sink += c.eval(vars, stack);
+            long t3 = System.nanoTime();
+            System.out.printf("Main.evalInfix: %6.1f ns/op | evaluator: %6.1f ns/op | compiled: %6.1f ns/op (x%.1f)%n",
+                    (t1 - t0) / (double) rounds, (t2 - t1) / (double) rounds, (t3 - t2) / (double) rounds,
+                    (t1 - t0) / (double) Math.max(1, t3 - t2));
+        }
+        if (sink == 42) System.out.println();
+    }
+}
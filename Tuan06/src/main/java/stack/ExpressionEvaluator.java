@@ -0,0 +1,200 @@
+package stack;
+
+import static stack.Main.applyOp;
+import static stack.Main.isDigit;
+import static stack.Main.isOp;
+import static stack.Main.isRightAssoc;
+import static stack.Main.isSpace;
+import static stack.Main.prec;
+
+/**
+ * Bộ tính biểu thức dùng lại được (cùng quy ước với Main: + - * / ^, số nguyên, chia nguyên).
+ * - Giữ sẵn 1 IntStack + 1 CharStack, mỗi lần tính chỉ clear() chứ không cấp phát lại.
+ * - Nhận CharSequence + [from, to) nên có thể tính trực tiếp trên StringBuilder / buffer
+ *   lớn mà không cần substring; postfix/prefix tự tách token, không dùng String.split.
+ * => Đường chạy nóng (không lỗi) không cấp phát gì, trừ khi stack phải grow lần đầu.
+ *
+ * Không thread-safe: mỗi luồng dùng 1 instance riêng.
+ */
+public final class ExpressionEvaluator {
+    private final Main.IntStack values = new Main.IntStack();
+    private final Main.CharStack ops = new Main.CharStack();
+
+    /* ==================== 1) Infix ==================== */
+    public int evalInfix(CharSequence s) {
+        return evalInfix(s, 0, s.length());
+    }
+
+    public int evalInfix(CharSequence s, int from, int to) {
+        checkRange(s, from, to);
+        values.clear();
+        ops.clear();
+        boolean expectNumber = true;
+
+        for (int i = from; i < to; ) {
+            char c = s.charAt(i);
+            if (isSpace(c)) { i++; continue; }
+
+            if (c == '(') { ops.push(c); i++; expectNumber = true; continue; }
+            if (c == ')') {
+                while (!ops.isEmpty() && ops.peek() != '(') reduce();
+                if (ops.isEmpty()) throw new RuntimeException("Mismatched parentheses");
+                ops.pop();
+                i++; expectNumber = false; continue;
+            }
+
+            if (isDigit(c) || (c == '-' && expectNumber)) {
+                int start = i;
+                if (c == '-') i++;
+                int digits = i;
+                while (i < to && isDigit(s.charAt(i))) i++;
+                if (i == digits) throw new RuntimeException("Invalid number");
+                values.push(parseInt(s, start, i, "Infix")); // báo lỗi nếu tràn int
+                expectNumber = false; continue;
+            }
+
+            if (isOp(c)) {
+                while (!ops.isEmpty() && ops.peek() != '(' &&
+                        (prec(ops.peek()) > prec(c) ||
+                                (prec(ops.peek()) == prec(c) && !isRightAssoc(c)))) {
+                    reduce();
+                }
+                ops.push(c);
+                i++; expectNumber = true; continue;
+            }
+
+            throw new RuntimeException("Invalid char '" + c + "' at " + i);
+        }
+
+        while (!ops.isEmpty()) {
+            if (ops.peek() == '(') throw new RuntimeException("Mismatched '('");
+            reduce();
+        }
+        if (values.size() != 1) throw new RuntimeException("Invalid expression");
+        return values.pop();
+    }
+
+    // Lấy 1 toán tử + 2 toán hạng, đẩy kết quả lại
+    private void reduce() {
+        char op = ops.pop();
+        if (values.size() < 2) throw new RuntimeException("Invalid expression");
+        int b = values.pop();
+        int a = values.pop();
+        values.push(applyOp(a, b, op));
+    }
+
+    /* ==================== 2) Postfix ==================== */
+    public int evalPostfix(CharSequence s) {
+        return evalPostfix(s, 0, s.length());
+    }
+
+    public int evalPostfix(CharSequence s, int from, int to) {
+        checkRange(s, from, to);
+        values.clear();
+        int i = from;
+        while (i < to) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) { i++; continue; }
+            int end = tokenEnd(s, i, to);
+
+            if (end - i == 1 && isOp(c)) {
+                if (values.size() < 2) {
+                    throw new RuntimeException("Postfix: not enough operands for operator " + c);
+                }
+                int b = values.pop();
+                int a = values.pop();
+                values.push(applyOp(a, b, c));
+            } else {
+                values.push(parseInt(s, i, end, "Postfix"));
+            }
+            i = end;
+        }
+        if (values.size() != 1) {
+            throw new RuntimeException("Postfix: invalid expression (stack size=" + values.size() + ")");
+        }
+        return values.pop();
+    }
+
+    /* ==================== 3) Prefix ==================== */
+    public int evalPrefix(CharSequence s) {
+        return evalPrefix(s, 0, s.length());
+    }
+
+    // Duyệt token từ phải sang trái, giống Main.evalPrefix nhưng không tách mảng token
+    public int evalPrefix(CharSequence s, int from, int to) {
+        checkRange(s, from, to);
+        values.clear();
+        int i = to;
+        while (i > from) {
+            char c = s.charAt(i - 1);
+            if (Character.isWhitespace(c)) { i--; continue; }
+            int start = tokenStart(s, from, i);
+
+            if (i - start == 1 && isOp(c)) {
+                if (values.size() < 2) throw new RuntimeException("Prefix: not enough operands");
+                int a = values.pop();
+                int b = values.pop();
+                values.push(applyOp(a, b, c));
+            } else {
+                values.push(parseInt(s, start, i, "Prefix"));
+            }
+            i = start;
+        }
+        if (values.size() != 1) throw new RuntimeException("Prefix: invalid expression");
+        return values.pop();
+    }
+
+    /* ==================== Helpers ==================== */
+    private static int tokenEnd(CharSequence s, int i, int to) {
+        while (i < to && !Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int tokenStart(CharSequence s, int from, int i) {
+        while (i > from && !Character.isWhitespace(s.charAt(i - 1))) i--;
+        return i;
+    }
+
+    // Giống Integer.parseInt (Main.evalPostfix / evalPrefix) nhưng đọc thẳng trên [from, to):
+    // dấu '+' / '-' tùy chọn, tràn int thì báo lỗi
+    static int parseInt(CharSequence s, int from, int to, String who) {
+        int i = from;
+        boolean negative = s.charAt(i) == '-';
+        if (negative || s.charAt(i) == '+') i++;
+        if (i == to) throw new RuntimeException(who + ": invalid token '" + s.subSequence(from, to) + "'");
+        // tích lũy phía âm như Integer.parseInt để -2147483648 vẫn hợp lệ
+        int val = 0;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) throw new RuntimeException(who + ": invalid token '" + s.subSequence(from, to) + "'");
+            int d = c - '0';
+            if (val < (Integer.MIN_VALUE + d) / 10) {
+                throw new RuntimeException(who + ": integer overflow in token '" + s.subSequence(from, to) + "'");
+            }
+            val = val * 10 - d;
+        }
+        if (!negative) {
+            if (val == Integer.MIN_VALUE) {
+                throw new RuntimeException(who + ": integer overflow in token '" + s.subSequence(from, to) + "'");
+            }
+            val = -val;
+        }
+        return val;
+    }
+
+    private static void checkRange(CharSequence s, int from, int to) {
+        if (s == null) throw new IllegalArgumentException("expression == null");
+        if (from < 0 || to > s.length() || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") of length " + s.length());
+        }
+    }
+
+    /* ==================== Demo ==================== */
+    public static void main(String[] args) {
+        ExpressionEvaluator ev = new ExpressionEvaluator();
+        StringBuilder buf = new StringBuilder("x = 12 + 3*(7 - 4) - 10/2 + 2^3;");
+        System.out.println("Infix (offset 4..31): " + ev.evalInfix(buf, 4, buf.length() - 1));
+        System.out.println("Postfix: " + ev.evalPostfix("12 3 7 4 - * + 10 2 / - 2 3 ^ +"));
+        System.out.println("Prefix:  " + ev.evalPrefix("+ - + 12 * 3 - 7 4 / 10 2 ^ 2 3"));
+    }
+}
@@ -0,0 +1,189 @@
+package stack;
+
+import java.util.Random;
+
+import static stack.Main.isRightAssoc;
+import static stack.Main.prec;
+
+/**
+ * Sinh biểu thức ngẫu nhiên có kiểm soát, dùng cho đo hiệu năng (EvalBenchmark) và kiểm thử chéo.
+ * - operators: đúng số phép toán hai ngôi trong cây (số lá = operators + 1).
+ * - maxDepth: độ sâu tối đa của cây (số tầng phép toán). maxDepth nhỏ -> cây gần cân bằng,
+ *   maxDepth = operators -> cho phép cả chuỗi suy biến kiểu 1+2+3+...
+ * - ops: tập phép toán được dùng, ví dụ "+-*" hay "+-*^/"; chọn đều trong tập này.
+ * - Cùng 1 cây có thể in ra infix (chỉ thêm ngoặc khi cần), postfix hoặc prefix, token cách nhau
+ *   bằng 1 dấu cách, nên 3 cách viết luôn cho cùng kết quả với Main.
+ * - variables > 0: khoảng nửa số lá là biến x0..x{variables-1}. Main không có biến nên Sample chứa
+ *   cả bản đã thay biến bằng giá trị (variableValues()) lẫn bản infix giữ tên biến cho ExpressionCompiler;
+ *   2 bản cho cùng kết quả, và bản có biến không bị ExpressionOptimizer gập hết thành 1 hằng.
+ * - Không bao giờ sinh lỗi khi tính: vế phải của '/' là hằng 1..maxLiteral, của '^' là hằng 0..3;
+ *   phép + - * có thể tràn int (quay vòng như Main.applyOp).
+ */
+public final class ExpressionGenerator {
+    public enum Notation { INFIX, POSTFIX, PREFIX }
+
+    /** 1 cây in theo mọi cách viết; symbolic là infix giữ tên biến (bằng infix nếu không có biến). */
+    public record Sample(String infix, String postfix, String prefix, String symbolic) {
+        public String get(Notation n) {
+            return switch (n) {
+                case INFIX -> infix;
+                case POSTFIX -> postfix;
+                case PREFIX -> prefix;
+            };
+        }
+    }
+
+    private final Random rnd;
+    private final int maxDepth;
+    private final char[] ops;
+    private final int maxLiteral;
+    private final String[] varNames;
+    private final int[] varValues;
+
+    private static final class Node {
+        final char op;     // 0 = lá
+        final int value;
+        final int var;     // lá là biến: chỉ số biến, ngược lại -1
+        final Node left, right;
+
+        Node(char op, int value, int var, Node left, Node right) {
+            this.op = op;
+            this.value = value;
+            this.var = var;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    public ExpressionGenerator(long seed, int maxDepth, String ops, int maxLiteral) {
+        this(seed, maxDepth, ops, maxLiteral, 0);
+    }
+
+    public ExpressionGenerator(long seed, int maxDepth, String ops, int maxLiteral, int variables) {
+        if (maxDepth < 1) throw new IllegalArgumentException("maxDepth < 1");
+        if (ops == null || ops.isEmpty()) throw new IllegalArgumentException("ops is empty");
+        for (int i = 0; i < ops.length(); i++) {
+            if (!Main.isOp(ops.charAt(i))) throw new IllegalArgumentException("Unknown operator: " + ops.charAt(i));
+        }
+        if (maxLiteral < 1) throw new IllegalArgumentException("maxLiteral < 1");
+        if (variables < 0) throw new IllegalArgumentException("variables < 0");
+        this.rnd = new Random(seed);
+        this.maxDepth = maxDepth;
+        this.ops = ops.toCharArray();
+        this.maxLiteral = maxLiteral;
+        this.varNames = new String[variables];
+        this.varValues = new int[variables];
+        for (int i = 0; i < variables; i++) {
+            varNames[i] = "x" + i;
+            varValues[i] = rnd.nextInt(maxLiteral + 1);
+        }
+    }
+
+    public String[] variableNames() { return varNames.clone(); }
+    public int[] variableValues() { return varValues.clone(); }
+
+    /** Biểu thức chỉ có hằng (biến đã thay bằng giá trị). */
+    public String generate(int operators, Notation notation) {
+        return print(build(operators), notation, false, operators);
+    }
+
+    public Sample sample(int operators) {
+        Node root = build(operators);
+        String infix = print(root, Notation.INFIX, false, operators);
+        return new Sample(infix, print(root, Notation.POSTFIX, false, operators), print(root, Notation.PREFIX, false, operators),
+                varNames.length == 0 ? infix : print(root, Notation.INFIX, true, operators));
+    }
+
+    /* ==================== dựng cây ==================== */
+    // số phép toán tối đa của cây sâu d
+    private static long capacity(int d) {
+        return d >= 62 ? Long.MAX_VALUE : (1L << d) - 1;
+    }
+
+    private Node build(int operators) {
+        if (operators < 0) throw new IllegalArgumentException("operators < 0");
+        if (operators > capacity(maxDepth)) {
+            throw new IllegalArgumentException(operators + " operators do not fit in depth " + maxDepth);
+        }
+        return build(operators, maxDepth);
+    }
+
+    private Node build(int n, int depth) {
+        if (n == 0) return leaf();
+        long cap = capacity(depth - 1);
+        char op = ops[rnd.nextInt(ops.length)];
+        if ((op == '/' || op == '^') && n - 1 <= cap) {
+            Node left = build(n - 1, depth - 1);
+            int v = op == '/' ? 1 + rnd.nextInt(maxLiteral) : rnd.nextInt(4);
+            return new Node(op, 0, -1, left, new Node((char) 0, v, -1, null, null));
+        }
+        if (op == '/' || op == '^') op = safeOp();
+        int lo = (int) Math.max(0, n - 1 - cap), hi = (int) Math.min(n - 1, cap);
+        int l = lo + rnd.nextInt(hi - lo + 1);
+        return new Node(op, 0, -1, build(l, depth - 1), build(n - 1 - l, depth - 1));
+    }
+
+    private Node leaf() {
+        if (varNames.length > 0 && rnd.nextBoolean()) {
+            int v = rnd.nextInt(varNames.length);
+            return new Node((char) 0, varValues[v], v, null, null);
+        }
+        return new Node((char) 0, rnd.nextInt(maxLiteral + 1), -1, null, null);
+    }
+
+    // phép toán thay thế khi '/' hoặc '^' không đặt được hằng ở vế phải
+    private char safeOp() {
+        for (int tries = 0; tries < 8; tries++) {
+            char c = ops[rnd.nextInt(ops.length)];
+            if (c != '/' && c != '^') return c;
+        }
+        for (char c : ops) if (c != '/' && c != '^') return c;
+        return '+';
+    }
+
+    /* ==================== in ra ==================== */
+    private String print(Node root, Notation notation, boolean symbolic, int operators) {
+        StringBuilder sb = new StringBuilder(operators * 6 + 4);
+        switch (notation) {
+            case INFIX -> infix(sb, root, symbolic);
+            case POSTFIX -> postfix(sb, root);
+            case PREFIX -> prefix(sb, root);
+        }
+        return sb.toString();
+    }
+
+    private void leaf(StringBuilder sb, Node x, boolean symbolic) {
+        if (symbolic && x.var >= 0) sb.append(varNames[x.var]);
+        else sb.append(x.value);
+    }
+
+    private void infix(StringBuilder sb, Node x, boolean symbolic) {
+        if (x.op == 0) { leaf(sb, x, symbolic); return; }
+        int p = prec(x.op);
+        boolean lp = x.left.op != 0 && (prec(x.left.op) < p || (prec(x.left.op) == p && isRightAssoc(x.op)));
+        boolean rp = x.right.op != 0 && (prec(x.right.op) < p || (prec(x.right.op) == p && !isRightAssoc(x.op)));
+        if (lp) sb.append('(');
+        infix(sb, x.left, symbolic);
+        if (lp) sb.append(')');
+        sb.append(' ').append(x.op).append(' ');
+        if (rp) sb.append('(');
+        infix(sb, x.right, symbolic);
+        if (rp) sb.append(')');
+    }
+
+    private static void postfix(StringBuilder sb, Node x) {
+        if (x.op == 0) { sb.append(x.value); return; }
+        postfix(sb, x.left);
+        sb.append(' ');
+        postfix(sb, x.right);
+        sb.append(' ').append(x.op);
+    }
+
+    private static void prefix(StringBuilder sb, Node x) {
+        if (x.op == 0) { sb.append(x.value); return; }
+        sb.append(x.op).append(' ');
+        prefix(sb, x.left);
+        sb.append(' ');
+        prefix(sb, x.right);
+    }
+}
@@ -0,0 +1,318 @@
+package stack;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static stack.CompiledExpression.*;
+
+/**
+ * Pass tối ưu cho CompiledExpression: RPN -> cây (DAG) -> tối ưu -> RPN mới.
+ * - Gộp hằng: "2^10*3" -> 3072 (theo đúng ngữ nghĩa của mode / kiểm tra tràn;
+ *   phép nào sẽ ném lỗi như chia 0 thì giữ nguyên để lỗi vẫn xảy ra lúc chạy).
+ * - Rút gọn đại số: x*1, 1*x, x/1, x-0, x^1 -> x; x+0 (chỉ số nguyên, vì -0.0 + 0.0 = 0.0);
+ *   x*0 -> 0 và x^0 -> 1 chỉ khi x không thể ném lỗi; -(-x) -> x khi không kiểm tra tràn.
+ * - Giảm bậc: x^2 -> x*x khi x là biến.
+ * - CSE: các nút được intern nên cây con giống nhau là cùng 1 đối tượng; cây con dùng
+ *   >= 2 lần (và đủ lớn, xem CSE_MIN_SIZE) chỉ tính 1 lần rồi lưu vào biến tạm (STORE), các lần sau LOAD.
+ * Dựng cây / phát lệnh đều bằng stack tường minh nên biểu thức rất sâu cũng không tràn stack Java.
+ */
+public final class ExpressionOptimizer {
+    // Cây con nhỏ hơn (vd "a*b") tính lại còn rẻ hơn 1 cặp STORE/LOAD qua bộ thông dịch
+    static final int CSE_MIN_SIZE = 4;
+
+    private ExpressionOptimizer() {
+    }
+
+    public static CompiledExpression optimize(CompiledExpression e) {
+        Builder b = new Builder(e.mode(), e.overflowChecked());
+        ExprNode root = b.build(e);
+        return new Emitter(e, root).emit();
+    }
+
+    /* ==================== RPN -> DAG đã tối ưu ==================== */
+    private static final class Builder {
+        private final NumericMode mode;
+        private final boolean exact;
+        private final boolean isDouble;
+        private final Map<ExprNode, ExprNode> interned = new HashMap<>();
+
+        Builder(NumericMode mode, boolean exact) {
+            this.mode = mode;
+            this.exact = exact;
+            this.isDouble = mode == NumericMode.DOUBLE;
+        }
+
+        ExprNode build(CompiledExpression e) {
+            int[] code = e.code();
+            ExprNode[] st = new ExprNode[Math.max(1, e.maxStack())];
+            ExprNode[] temps = new ExprNode[Math.max(0, e.maxStack() - e.tempBase())];
+            int sp = -1;
+            for (int pc = 0; pc < code.length; pc++) {
+                int op = code[pc];
+                switch (op) {
+                    case CONST -> {
+                        int k = code[++pc];
+                        st[++sp] = isDouble ? constant(e.doubleConsts()[k]) : constant(e.longConsts()[k]);
+                    }
+                    case VAR -> st[++sp] = intern(ExprNode.variable(code[++pc]));
+                    case LOAD -> st[++sp] = temps[code[++pc]];
+                    case STORE -> temps[code[++pc]] = st[sp];
+                    case NEG, NEG_EXACT -> st[sp] = neg(st[sp]);
+                    default -> {
+                        sp--;
+                        st[sp] = make(ExprNode.baseOp(op), st[sp], st[sp + 1]);
+                    }
+                }
+            }
+            return st[0];
+        }
+
+        private ExprNode intern(ExprNode n) {
+            ExprNode old = interned.putIfAbsent(n, n);
+            return old != null ? old : n;
+        }
+
+        private ExprNode constant(long v) { return intern(ExprNode.constant(v)); }
+        private ExprNode constant(double v) { return intern(ExprNode.constant(v)); }
+
+        private boolean isConst(ExprNode n, long v) {
+            return n.isConst() && (isDouble ? n.dval == v : n.lval == v);
+        }
+
+        private ExprNode neg(ExprNode x) {
+            if (x.isConst()) {
+                if (isDouble) return constant(-x.dval);
+                try {
+                    return constant(applyLong(mode, exact, NEG, x.lval, 0));
+                } catch (ArithmeticException ex) {
+                    // tràn khi gộp: để lại cho lúc chạy
+                }
+            }
+            if (x.op == NEG && !exact) return x.left;
+            return intern(ExprNode.unary(NEG, x, exact));
+        }
+
+        private ExprNode make(int op, ExprNode a, ExprNode b) {
+            if (a.isConst() && b.isConst()) {
+                if (isDouble) return constant(applyDouble(op, a.dval, b.dval));
+                try {
+                    return constant(applyLong(mode, exact, op, a.lval, b.lval));
+                } catch (ArithmeticException ex) {
+                    // chia 0 / tràn / mũ âm: giữ nguyên phép tính để lỗi xảy ra lúc chạy
+                }
+            }
+            switch (op) {
+                case ADD -> {
+                    if (!isDouble && isConst(b, 0)) return a;
+                    if (!isDouble && isConst(a, 0)) return b;
+                }
+                case SUB -> {
+                    // x - 0.0 = x với mọi x (kể cả -0.0), còn x - (-0.0) thì không
+                    if (b.isConst() && (isDouble ? Double.doubleToRawLongBits(b.dval) == 0 : b.lval == 0)) return a;
+                }
+                case MUL -> {
+                    if (isConst(b, 1)) return a;
+                    if (isConst(a, 1)) return b;
+                    if (!isDouble && isConst(b, 0) && !a.canThrow) return b;
+                    if (!isDouble && isConst(a, 0) && !b.canThrow) return a;
+                }
+                case DIV -> {
+                    if (isConst(b, 1)) return a;
+                }
+                case POW -> {
+                    if (isConst(b, 1)) return a;
+                    if (isConst(b, 0) && (isDouble || !a.canThrow)) return isDouble ? constant(1.0) : constant(1L);
+                    // x^2 -> x*x cùng số lệnh nhưng MUL rẻ hơn POW; bậc cao hơn hoặc cơ số phức tạp
+                    // thì 1 lệnh POW lại rẻ hơn chuỗi MUL qua bộ thông dịch
+                    if (a.isLeaf() && isConst(b, 2)) return make(MUL, a, a);
+                }
+            }
+            return intern(ExprNode.binary(op, a, b, canThrow(op, b)));
+        }
+
+        private boolean canThrow(int op, ExprNode b) {
+            if (isDouble) return false;
+            return switch (op) {
+                case DIV -> !(b.isConst() && b.lval != 0 && !(exact && b.lval == -1));
+                case POW -> exact || !(b.isConst() && b.lval >= 0);
+                default -> exact;
+            };
+        }
+    }
+
+    /* ==================== DAG -> RPN (có biến tạm cho CSE) ==================== */
+    private static final class Emitter {
+        private final CompiledExpression src;
+        private final ExprNode root;
+        private final boolean isDouble;
+        private final int exactShift;
+
+        private int[] code = new int[16];
+        private int len, depth, maxDepth, temps;
+        private final List<Long> longConsts = new ArrayList<>();
+        private final List<Double> doubleConsts = new ArrayList<>();
+        private final Map<Long, Integer> constIndex = new HashMap<>();
+
+        private final IdentityHashMap<ExprNode, Integer> refs = new IdentityHashMap<>();
+        private final IdentityHashMap<ExprNode, Integer> tempOf = new IdentityHashMap<>();
+
+        Emitter(CompiledExpression src, ExprNode root) {
+            this.src = src;
+            this.root = root;
+            this.isDouble = src.mode() == NumericMode.DOUBLE;
+            this.exactShift = src.overflowChecked() ? ADD_EXACT - ADD : 0;
+        }
+
+        CompiledExpression emit() {
+            countRefs();
+            ExprNode[] st = new ExprNode[16];
+            int[] state = new int[16];
+            int sp = 0;
+            st[0] = root;
+            while (sp >= 0) {
+                ExprNode n = st[sp];
+                if (state[sp] == 0) {
+                    Integer t = tempOf.get(n);
+                    if (t != null) { emit(LOAD, t); sp--; continue; }
+                    if (n.isLeaf()) { emitLeaf(n); sp--; continue; }
+                    state[sp] = 1;
+                    if (sp + 2 >= st.length) {
+                        st = Arrays.copyOf(st, st.length * 2);
+                        state = Arrays.copyOf(state, state.length * 2);
+                    }
+                    st[++sp] = n.left; state[sp] = 0;
+                } else if (state[sp] == 1) {
+                    state[sp] = 2;
+                    if (n.right != null) { st[++sp] = n.right; state[sp] = 0; }
+                } else {
+                    emitOp(n.op);
+                    if (n.size >= CSE_MIN_SIZE && refs.getOrDefault(n, 0) > 1) {
+                        int t = temps++;
+                        tempOf.put(n, t);
+                        emit(STORE, t);
+                    }
+                    sp--;
+                }
+            }
+
+            int[] finalCode = Arrays.copyOf(code, len);
+            long[] lc = new long[isDouble ? 0 : longConsts.size()];
+            for (int i = 0; i < lc.length; i++) lc[i] = longConsts.get(i);
+            double[] dc = new double[isDouble ? doubleConsts.size() : 0];
+            for (int i = 0; i < dc.length; i++) dc[i] = doubleConsts.get(i);
+            return new CompiledExpression(src.source(), src.mode(), src.overflowChecked(), finalCode,
+                    lc, dc, src.vars(), maxDepth, temps);
+        }
+
+        // Đếm số cha của mỗi nút trong DAG (mỗi nút chỉ duyệt con 1 lần)
+        private void countRefs() {
+            IdentityHashMap<ExprNode, Boolean> seen = new IdentityHashMap<>();
+            ArrayList<ExprNode> todo = new ArrayList<>();
+            todo.add(root);
+            seen.put(root, Boolean.TRUE);
+            while (!todo.isEmpty()) {
+                ExprNode n = todo.remove(todo.size() - 1);
+                if (n.left != null) countChild(n.left, seen, todo);
+                if (n.right != null) countChild(n.right, seen, todo);
+            }
+        }
+
+        private void countChild(ExprNode c, IdentityHashMap<ExprNode, Boolean> seen, List<ExprNode> todo) {
+            refs.merge(c, 1, Integer::sum);
+            if (seen.put(c, Boolean.TRUE) == null) todo.add(c);
+        }
+
+        private void emitLeaf(ExprNode n) {
+            if (n.op == VAR) { emit(VAR, n.var); return; }
+            long key = isDouble ? Double.doubleToRawLongBits(n.dval) : n.lval;
+            Integer k = constIndex.get(key);
+            if (k == null) {
+                k = isDouble ? doubleConsts.size() : longConsts.size();
+                if (isDouble) doubleConsts.add(n.dval); else longConsts.add(n.lval);
+                constIndex.put(key, k);
+            }
+            emit(CONST, k);
+        }
+
+        private void emitOp(int op) {
+            ensure(1);
+            code[len++] = op + exactShift;
+            if (op != NEG) depth--;
+        }
+
+        private void emit(int op, int operand) {
+            ensure(2);
+            code[len++] = op;
+            code[len++] = operand;
+            if (op != STORE && ++depth > maxDepth) maxDepth = depth;
+        }
+
+        private void ensure(int extra) {
+            if (len + extra > code.length) code = Arrays.copyOf(code, Math.max(code.length * 2, len + extra));
+        }
+    }
+
+    /* ==================== Demo + đo trên bộ công thức ==================== */
+    /**
+     * Chạy: ExpressionOptimizer [file công thức, mỗi dòng 1 công thức] [INT|LONG|DOUBLE].
+     * Không có file thì dùng vài công thức mẫu.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> corpus = args.length > 0 ? Files.readAllLines(Path.of(args[0])) : List.of(
+                "2^10*3 + x",
+                "(a + b) * (a + b) - (a + b) / 2",
+                "x^2 + 2*x*y + y^2",
+                "(price * qty - discount * 1) * (1 + 0) + (price * qty - discount) / 10",
+                "((x + 1) * (x + 1) + (y - 0) * 1)^2 + 3 * 4 * 5",
+                "a*b + a*b + a*b + (c - d)^3");
+        NumericMode mode = args.length > 1 ? NumericMode.valueOf(args[1]) : NumericMode.INT;
+        Random rnd = new Random(7);
+        int rounds = 1_000_000;
+        long sink = 0;
+        for (String line : corpus) {
+            if (line.isBlank()) continue;
+            CompiledExpression plain = ExpressionCompiler.compile(line, mode, false);
+            CompiledExpression opt = optimize(plain);
+            System.out.println(plain.toRpn() + "\n  => " + opt.toRpn());
+            int nv = plain.variableCount();
+            int[] iv = new int[nv]; long[] lv = new long[nv]; double[] dv = new double[nv];
+            for (int i = 0; i < nv; i++) { iv[i] = rnd.nextInt(10) + 1; lv[i] = iv[i]; dv[i] = iv[i]; }
+            int[] is1 = plain.newStack(), is2 = opt.newStack();
+            long[] ls1 = plain.newLongStack(), ls2 = opt.newLongStack();
+            double[] ds1 = plain.newDoubleStack(), ds2 = opt.newDoubleStack();
+            long tPlain = 0, tOpt = 0;
+            for (int warm = 0; warm < 3; warm++) {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    sink += switch (mode) {
+                        case INT -> plain.eval(iv, is1);
+                        case LONG -> plain.evalLong(lv, ls1);
+                        case DOUBLE -> (long) plain.evalDouble(dv, ds1);
+                    };
+                }
+                long t1 = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    sink += switch (mode) {
+                        case INT -> opt.eval(iv, is2);
+                        case LONG -> opt.evalLong(lv, ls2);
+                        case DOUBLE -> (long) opt.evalDouble(dv, ds2);
+                    };
+                }
+                long t2 = System.nanoTime();
+                tPlain = t1 - t0;
+                tOpt = t2 - t1;
+            }
+            System.out.printf("  plain %.1f ns/op, optimized %.1f ns/op (x%.2f)%n",
+                    tPlain / (double) rounds, tOpt / (double) rounds, tPlain / (double) Math.max(1, tOpt));
+        }
+        if (sink == 42) System.out.println();
+    }
+}
@@ -34,9 +34,14 @@ public class Main {
             return a[top];
         }
 
+        // Dùng lại mảng đã cấp phát, chỉ đặt lại đỉnh stack
+        void clear() {
+            top = -1;
+        }
+
         private void grow() {
             int[] b = new int[a.length * 2];
-            for (int i = 0; i < a.length; i++) b[i] = a[i];
+            System.arraycopy(a, 0, b, 0, a.length);
             a = b;
         }
     }
@@ -64,9 +69,13 @@ public class Main {
             return a[top];
         }
 
+        void clear() {
+            top = -1;
+        }
+
         private void grow() {
             char[] b = new char[a.length * 2];
-            for (int i = 0; i < a.length; i++) b[i] = a[i];
+            System.arraycopy(a, 0, b, 0, a.length);
             a = b;
         }
     }
@@ -0,0 +1,12 @@
+package stack;
+
+/**
+ * Kiểu số dùng khi biên dịch biểu thức (chọn 1 lần lúc compile).
+ * - INT, LONG: số nguyên, chia nguyên, ^ bằng bình phương lặp; có thể bật kiểm tra tràn số.
+ * - DOUBLE: số thực IEEE 754 (chia cho 0 ra Infinity/NaN, ^ dùng Math.pow), cho phép hằng "1.5".
+ */
+public enum NumericMode {
+    INT,
+    LONG,
+    DOUBLE
+}
@@ -0,0 +1,279 @@
+package stack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static stack.CompiledExpression.*;
+
+/**
+ * Tính song song biểu thức rất lớn bằng ForkJoinPool.
+ * - Trong RPN, mỗi cây con của cây biểu thức là 1 đoạn lệnh liên tiếp. Lúc tạo, ta mô phỏng stack
+ *   1 lượt để biết đoạn lệnh của 2 toán hạng mỗi phép toán; phép nào có CẢ 2 toán hạng dài
+ *   >= threshold (tính theo số ô trong mảng lệnh) thì 2 toán hạng đó thành 2 task độc lập.
+ * - Task chạy đoạn lệnh của mình bằng vòng lặp như eval tuần tự; tới đầu đoạn của task con thì
+ *   join lấy kết quả đẩy vào stack rồi nhảy qua đoạn đó. Không đệ quy theo độ sâu cây, nên
+ *   biểu thức suy biến kiểu 1+1+1+... hàng triệu tầng vẫn chạy được.
+ * - Phép toán dùng đúng CompiledExpression.applyLong / applyDouble (cùng mode, cùng kiểm tra tràn)
+ *   nên kết quả trùng khớp với eval tuần tự. Nếu có nhiều chỗ lỗi (chia 0...) thì lỗi ném ra có thể
+ *   khác lỗi đầu tiên mà bản tuần tự gặp.
+ * - Đoạn có biến tạm (STORE/LOAD do ExpressionOptimizer tạo cho CSE) không bị tách, để biến tạm
+ *   luôn được ghi trước khi đọc trong cùng 1 task.
+ */
+public final class ParallelEvaluator {
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final CompiledExpression expr;
+    private final NumericMode mode;
+    private final int[] code;
+    private final Range root;
+    private int forkCount;
+
+    // Đoạn lệnh [start, end] (end tính cả ô toán hạng) + các đoạn con được tách, theo thứ tự start
+    private static final class Range {
+        final int start, end;
+        final List<Range> children = new ArrayList<>();
+
+        Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean contains(Range r) { return start <= r.start && r.end <= end; }
+    }
+
+    public ParallelEvaluator(CompiledExpression expr) {
+        this(expr, DEFAULT_THRESHOLD);
+    }
+
+    public ParallelEvaluator(CompiledExpression expr, int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("threshold < 1");
+        this.expr = expr;
+        this.mode = expr.mode();
+        this.code = expr.code();
+        this.root = new Range(0, code.length - 1);
+        split(threshold);
+    }
+
+    /** Số đoạn được tách thành task riêng, để tham khảo khi chọn threshold. */
+    public int forkCount() { return forkCount; }
+
+    public int eval(ForkJoinPool pool, int... vars) {
+        check(NumericMode.INT, vars.length);
+        long[] lv = new long[vars.length];
+        for (int i = 0; i < vars.length; i++) lv[i] = vars[i];
+        return (int) run(pool, lv, null).lres;
+    }
+
+    public long evalLong(ForkJoinPool pool, long... vars) {
+        check(NumericMode.LONG, vars.length);
+        return run(pool, vars, null).lres;
+    }
+
+    public double evalDouble(ForkJoinPool pool, double... vars) {
+        check(NumericMode.DOUBLE, vars.length);
+        return run(pool, null, vars).dres;
+    }
+
+    private Task run(ForkJoinPool pool, long[] lv, double[] dv) {
+        Task t = new Task(root, lv, dv);
+        pool.invoke(t);
+        return t;
+    }
+
+    private void check(NumericMode expected, int varsLength) {
+        if (mode != expected) throw new IllegalStateException("Expression compiled as " + mode + ", not " + expected);
+        if (varsLength < expr.variableCount()) {
+            throw new IllegalArgumentException("Expected " + expr.variableCount() + " variables, got " + varsLength);
+        }
+    }
+
+    /* ==================== phân tích đoạn lệnh ==================== */
+    private void split(int threshold) {
+        int len = code.length;
+        // temps[pc] = số lệnh STORE/LOAD trong code[0..pc)
+        int[] temps = new int[len + 1];
+        for (int pc = 0; pc < len; pc++) {
+            int op = code[pc];
+            temps[pc + 1] = temps[pc] + (op == LOAD || op == STORE ? 1 : 0);
+            if (hasOperand(op)) { temps[pc + 2] = temps[pc + 1]; pc++; }
+        }
+
+        int[] ss = new int[Math.max(1, expr.maxStack())], se = new int[ss.length];
+        int sp = -1;
+        List<Range> forks = new ArrayList<>();
+        for (int pc = 0; pc < len; pc++) {
+            int op = code[pc];
+            if (op == STORE) { pc++; continue; }
+            if (hasOperand(op)) { sp++; ss[sp] = pc; se[sp] = pc + 1; pc++; continue; }
+            if (op == NEG || op == NEG_EXACT) { se[sp] = pc; continue; }
+            int ls = ss[sp - 1], le = se[sp - 1], rs = ss[sp], re = se[sp];
+            if (le - ls + 1 >= threshold && re - rs + 1 >= threshold
+                    && temps[le + 1] == temps[ls] && temps[re + 1] == temps[rs]) {
+                forks.add(new Range(ls, le));
+                forks.add(new Range(rs, re));
+            }
+            sp--;
+            se[sp] = pc;
+        }
+        forkCount = forks.size();
+
+        // Các đoạn lồng nhau hoặc rời nhau: sắp theo start, dựng quan hệ cha-con bằng stack
+        forks.sort((a, b) -> a.start != b.start ? Integer.compare(a.start, b.start) : Integer.compare(b.end, a.end));
+        ArrayDeque<Range> open = new ArrayDeque<>();
+        open.push(root);
+        for (Range r : forks) {
+            while (!open.peek().contains(r)) open.pop();
+            open.peek().children.add(r);
+            open.push(r);
+        }
+    }
+
+    private static boolean hasOperand(int op) {
+        return op == CONST || op == VAR || op == LOAD || op == STORE;
+    }
+
+    /* ==================== task cho 1 đoạn lệnh ==================== */
+    private final class Task extends RecursiveAction {
+        private final Range range;
+        private final long[] lv;
+        private final double[] dv;
+        long lres;
+        double dres;
+
+        Task(Range range, long[] lv, double[] dv) {
+            this.range = range;
+            this.lv = lv;
+            this.dv = dv;
+        }
+
+        @Override
+        protected void compute() {
+            Task[] kids = new Task[range.children.size()];
+            for (int i = 0; i < kids.length; i++) {
+                kids[i] = new Task(range.children.get(i), lv, dv);
+                kids[i].fork();
+            }
+            if (dv != null) dres = runDouble(kids);
+            else lres = runLong(kids);
+        }
+
+        private long runLong(Task[] kids) {
+            final int[] code = ParallelEvaluator.this.code;
+            final long[] consts = expr.longConsts();
+            final int tempBase = expr.tempBase();
+            long[] st = new long[Math.max(1, expr.maxStack())];
+            int sp = -1, k = 0;
+            int nextKid = kids.length > 0 ? kids[0].range.start : -1;
+            for (int pc = range.start; pc <= range.end; pc++) {
+                if (pc == nextKid) {
+                    kids[k].join();
+                    st[++sp] = kids[k].lres;
+                    pc = kids[k].range.end;
+                    k++;
+                    nextKid = k < kids.length ? kids[k].range.start : -1;
+                    continue;
+                }
+                int op = code[pc];
+                switch (op) {
+                    case CONST -> st[++sp] = consts[code[++pc]];
+                    case VAR   -> st[++sp] = lv[code[++pc]];
+                    case LOAD  -> st[++sp] = st[tempBase + code[++pc]];
+                    case STORE -> st[tempBase + code[++pc]] = st[sp];
+                    case NEG, NEG_EXACT -> st[sp] = applyLong(mode, op == NEG_EXACT, NEG, st[sp], 0);
+                    default -> {
+                        sp--;
+                        st[sp] = applyLong(mode, op >= ADD_EXACT, ExprNode.baseOp(op), st[sp], st[sp + 1]);
+                    }
+                }
+            }
+            return st[0];
+        }
+
+        private double runDouble(Task[] kids) {
+            final int[] code = ParallelEvaluator.this.code;
+            final double[] consts = expr.doubleConsts();
+            final int tempBase = expr.tempBase();
+            double[] st = new double[Math.max(1, expr.maxStack())];
+            int sp = -1, k = 0;
+            int nextKid = kids.length > 0 ? kids[0].range.start : -1;
+            for (int pc = range.start; pc <= range.end; pc++) {
+                if (pc == nextKid) {
+                    kids[k].join();
+                    st[++sp] = kids[k].dres;
+                    pc = kids[k].range.end;
+                    k++;
+                    nextKid = k < kids.length ? kids[k].range.start : -1;
+                    continue;
+                }
+                int op = code[pc];
+                switch (op) {
+                    case CONST -> st[++sp] = consts[code[++pc]];
+                    case VAR   -> st[++sp] = dv[code[++pc]];
+                    case LOAD  -> st[++sp] = st[tempBase + code[++pc]];
+                    case STORE -> st[tempBase + code[++pc]] = st[sp];
+                    case NEG   -> st[sp] = -st[sp];
+                    default -> { sp--; st[sp] = applyDouble(op, st[sp], st[sp + 1]); }
+                }
+            }
+            return st[0];
+        }
+    }
+
+    /* ==================== Demo: đường tăng tốc 1..N lõi ==================== */
+    public static void main(String[] args) {
+        int leaves = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String src = generate(leaves);
+        CompiledExpression e = ExpressionCompiler.compile(src, NumericMode.LONG, false);
+        ParallelEvaluator pe = new ParallelEvaluator(e);
+        long[] vars = new long[e.variableCount()];
+        for (int i = 0; i < vars.length; i++) vars[i] = i + 2;
+        long[] stack = e.newLongStack();
+
+        long expected = e.evalLong(vars, stack);
+        long seqNs = Long.MAX_VALUE;
+        for (int r = 0; r < 5; r++) {
+            long t0 = System.nanoTime();
+            e.evalLong(vars, stack);
+            seqNs = Math.min(seqNs, System.nanoTime() - t0);
+        }
+        System.out.printf("%d nodes, %d forked ranges, sequential: %.2f ms%n", 2 * leaves - 1, pe.forkCount(), seqNs / 1e6);
+        for (int p = 1; p <= maxThreads; p++) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < 5; r++) {
+                long t0 = System.nanoTime();
+                long v = pe.evalLong(pool, vars);
+                best = Math.min(best, System.nanoTime() - t0);
+                if (v != expected) throw new IllegalStateException("parallel " + v + " != sequential " + expected);
+            }
+            pool.shutdown();
+            System.out.printf("threads=%2d: %.2f ms (x%.2f vs sequential)%n", p, best / 1e6, seqNs / (double) best);
+        }
+    }
+
+    // Biểu thức cân bằng với đúng 'leaves' lá, có ngoặc, có biến
+    private static String generate(int leaves) {
+        java.util.Random rnd = new java.util.Random(1);
+        StringBuilder sb = new StringBuilder(leaves * 8);
+        gen(sb, leaves, rnd);
+        return sb.toString();
+    }
+
+    private static void gen(StringBuilder sb, int leaves, java.util.Random rnd) {
+        if (leaves == 1) {
+            if (rnd.nextBoolean()) sb.append((char) ('a' + rnd.nextInt(4)));
+            else sb.append(rnd.nextInt(9) + 1);
+            return;
+        }
+        int l = leaves / 2;
+        sb.append('(');
+        gen(sb, l, rnd);
+        sb.append("+-*".charAt(rnd.nextInt(3)));
+        gen(sb, leaves - l, rnd);
+        sb.append(')');
+    }
+}
@@ -0,0 +1,152 @@
+package stack;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static stack.Main.applyOp;
+import static stack.Main.isDigit;
+import static stack.Main.isOp;
+
+/**
+ * Tính biểu thức postfix đọc dần từ Reader / ReadableByteChannel (cùng quy ước với Main.evalPostfix).
+ * - Đọc theo từng khối cố định (mặc định 64K), tách token ngay trên buffer bằng máy trạng thái:
+ *   số được cộng dồn chữ số kể cả khi bị cắt ngang giữa 2 khối, không tạo String / substring nào.
+ * - Bộ nhớ chỉ phụ thuộc độ sâu stack (IntStack) + buffer, không phụ thuộc độ dài đầu vào,
+ *   nên chạy được với chương trình postfix hàng trăm MB.
+ * - Bản từ channel đọc byte ASCII trực tiếp (token chỉ gồm ASCII; byte khác ASCII -> token lỗi).
+ *
+ * Không thread-safe; instance dùng lại được cho nhiều lần eval.
+ */
+public final class StreamingPostfixEvaluator {
+    private static final int DEFAULT_BUFFER = 64 * 1024;
+
+    private final int bufferSize;
+    private final Main.IntStack st = new Main.IntStack();
+    private char[] chars;      // buffer cho Reader, cấp khi cần lần đầu
+    private ByteBuffer bytes;  // buffer cho channel, cấp khi cần lần đầu
+
+    // trạng thái token đang đọc dở
+    private long pos;          // vị trí ký tự hiện tại trong toàn bộ đầu vào
+    private long tokStart;
+    private int tokLen;
+    private char tokFirst;
+    private boolean tokSigned, tokNegative, tokValid;
+    private int tokValue; // tích lũy phía âm (như Integer.parseInt) để -2147483648 vẫn hợp lệ
+
+    public StreamingPostfixEvaluator() {
+        this(DEFAULT_BUFFER);
+    }
+
+    public StreamingPostfixEvaluator(int bufferSize) {
+        if (bufferSize < 16) throw new IllegalArgumentException("bufferSize < 16");
+        this.bufferSize = bufferSize;
+    }
+
+    public int eval(Reader in) throws IOException {
+        if (chars == null) chars = new char[bufferSize];
+        reset();
+        int n;
+        while ((n = in.read(chars, 0, chars.length)) != -1) {
+            for (int i = 0; i < n; i++) accept(chars[i]);
+        }
+        return finish();
+    }
+
+    public int eval(ReadableByteChannel in) throws IOException {
+        if (bytes == null) bytes = ByteBuffer.allocate(bufferSize);
+        reset();
+        ByteBuffer buf = bytes;
+        buf.clear();
+        while (in.read(buf) != -1) {
+            buf.flip();
+            while (buf.hasRemaining()) accept((char) (buf.get() & 0xFF));
+            buf.clear();
+        }
+        return finish();
+    }
+
+    public int eval(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return eval(ch);
+        }
+    }
+
+    /** Độ sâu stack hiện tại (sau eval luôn là 0) — tiện để theo dõi bộ nhớ khi debug. */
+    public int depth() { return st.size(); }
+
+    /* ==================== máy trạng thái tách token ==================== */
+    private void reset() {
+        st.clear();
+        pos = 0;
+        tokLen = 0;
+    }
+
+    private void accept(char c) {
+        if (Character.isWhitespace(c)) {
+            if (tokLen > 0) endToken();
+        } else {
+            if (tokLen == 0) {
+                tokStart = pos;
+                tokFirst = c;
+                tokSigned = c == '-' || c == '+'; // "+5" cũng hợp lệ như Integer.parseInt
+                tokNegative = c == '-';
+                tokValue = 0;
+                tokValid = tokSigned || isDigit(c);
+                if (isDigit(c)) tokValue = '0' - c;
+            } else if (isDigit(c)) {
+                int d = c - '0';
+                // tràn int: coi như token không hợp lệ (báo lỗi kèm offset ở endToken)
+                if (tokValue < (Integer.MIN_VALUE + d) / 10) tokValid = false;
+                tokValue = tokValue * 10 - d;
+            } else {
+                tokValid = false;
+            }
+            tokLen++;
+        }
+        pos++;
+    }
+
+    private void endToken() {
+        if (tokLen == 1 && isOp(tokFirst)) {
+            if (st.size() < 2) {
+                throw new RuntimeException("Postfix: not enough operands for operator " + tokFirst
+                        + " at offset " + tokStart);
+            }
+            int b = st.pop();
+            int a = st.pop();
+            st.push(applyOp(a, b, tokFirst));
+        } else if (tokValid && !(tokSigned && tokLen == 1)
+                && (tokNegative || tokValue != Integer.MIN_VALUE)) {
+            st.push(tokNegative ? tokValue : -tokValue);
+        } else {
+            throw new RuntimeException("Postfix: invalid token starting with '" + tokFirst
+                    + "' at offset " + tokStart + " (length " + tokLen + ")");
+        }
+        tokLen = 0;
+    }
+
+    private int finish() {
+        if (tokLen > 0) endToken();
+        if (st.size() != 1) {
+            throw new RuntimeException("Postfix: invalid expression (stack size=" + st.size() + ")");
+        }
+        return st.pop();
+    }
+
+    /* ==================== Demo ==================== */
+    public static void main(String[] args) throws IOException {
+        StreamingPostfixEvaluator ev = new StreamingPostfixEvaluator(16);
+        System.out.println("Reader:  " + ev.eval(new java.io.StringReader("12 3 7 4 - * + 10 2 / - 2 3 ^ +")));
+
+        if (args.length > 0) {
+            long t0 = System.nanoTime();
+            int r = new StreamingPostfixEvaluator().eval(Path.of(args[0]));
+            System.out.printf("%s = %d (%.1f ms)%n", args[0], r, (System.nanoTime() - t0) / 1e6);
+        }
+    }
+}